@@ -0,0 +1,106 @@
+package bytelogic.world.blocks.logic;
+
+import bytelogic.world.blocks.logic.BinaryLogicBlock.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares gate evaluation through per-block processor lambdas with {@link GateOpcode}.
+ * Run with {@code gradlew :core:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GateDispatchBenchmark{
+    static final GateOpcode[] binaryOpcodes = {
+    GateOpcode.and, GateOpcode.or, GateOpcode.xor, GateOpcode.add, GateOpcode.sub,
+    GateOpcode.div, GateOpcode.mod, GateOpcode.mul, GateOpcode.eq, GateOpcode.gt
+    };
+
+    @Param({"1000", "100000"})
+    public int gates;
+
+    int[] inputs, out;
+    boolean[] flipped;
+    BinaryProcessor[] lambdas;
+    GateOpcode[] opcodes;
+    int[] batchSlots, batchStart;
+
+    @Setup
+    public void setup(){
+        Random random = new Random(42);
+        inputs = new int[gates * 2];
+        out = new int[gates];
+        flipped = new boolean[gates];
+        lambdas = new BinaryProcessor[gates];
+        opcodes = new GateOpcode[gates];
+        //both planets create their own lambdas, as ByteLogicBlocks did
+        BinaryProcessor[][] planets = {lambdas(), lambdas()};
+        int[] counts = new int[GateOpcode.all.length + 1];
+        for(int i = 0; i < gates; i++){
+            int op = random.nextInt(binaryOpcodes.length);
+            opcodes[i] = binaryOpcodes[op];
+            lambdas[i] = planets[random.nextInt(2)][op];
+            inputs[i * 2] = random.nextInt(256);
+            inputs[i * 2 + 1] = random.nextInt(256);
+            flipped[i] = random.nextBoolean();
+            counts[opcodes[i].ordinal() + 1]++;
+        }
+        for(int o = 0; o < GateOpcode.all.length; o++){
+            counts[o + 1] += counts[o];
+        }
+        batchStart = counts.clone();
+        batchSlots = new int[gates];
+        for(int i = 0; i < gates; i++){
+            batchSlots[counts[opcodes[i].ordinal()]++] = i;
+        }
+    }
+
+    static BinaryProcessor[] lambdas(){
+        return new BinaryProcessor[]{
+        (left, right) -> left & right,
+        (left, right) -> left | right,
+        (left, right) -> left ^ right,
+        (left, right) -> (int)Math.min((long)left + right, Integer.MAX_VALUE),
+        (left, right) -> Math.max(left - right, 0),
+        (left, right) -> right == 0 ? 0 : left / right,
+        (left, right) -> right == 0 ? 0 : left % right,
+        (left, right) -> left * right,
+        (left, right) -> left == right ? 1 : 0,
+        (left, right) -> left > right ? 1 : 0
+        };
+    }
+
+    @Benchmark
+    public int[] lambdaDispatch(){
+        for(int i = 0; i < gates; i++){
+            int left = inputs[i * 2], right = inputs[i * 2 + 1];
+            out[i] = flipped[i] ? lambdas[i].process(right, left) : lambdas[i].process(left, right);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] opcodePerGate(){
+        for(int i = 0; i < gates; i++){
+            int left = inputs[i * 2], right = inputs[i * 2 + 1];
+            out[i] = flipped[i] ? opcodes[i].process(right, left) : opcodes[i].process(left, right);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int[] opcodeBatched(){
+        GateOpcode[] all = GateOpcode.all;
+        for(int o = 0; o < all.length; o++){
+            if(batchStart[o] == batchStart[o + 1]) continue;
+            all[o].binary(batchSlots, batchStart[o], batchStart[o + 1], inputs, flipped, out);
+        }
+        return out;
+    }
+}
@@ -8,6 +8,7 @@ import mindustry.content.*;
 import mindustry.ctype.*;
 import mindustry.game.*;
 import mma.*;
+import bytelogic.async.*;
 import bytelogic.content.*;
 import bytelogic.core.*;
 import bytelogic.customArc.*;
@@ -19,6 +20,7 @@ public class BLVars extends ModVars{
     public static ModSettings settings;
     public static BLUI modUI;
     public static ByteLogicMod mod;
+    public static BlockStateUpdater stateUpdater;
 
     static{
         new BLVars();
@@ -2,10 +2,12 @@ package bytelogic;
 
 import arc.*;
 import arc.graphics.g2d.*;
+import arc.util.*;
 import bytelogic.async.*;
 import bytelogic.game.*;
 import bytelogic.ui.*;
 import bytelogic.ui.dialogs.*;
+import bytelogic.world.blocks.logic.*;
 import mindustry.*;
 import mindustry.content.*;
 import mindustry.content.TechTree.*;
@@ -39,7 +41,22 @@ public class ByteLogicMod extends MMAMod {
         Events.on(ResetEvent.class, e -> {
             BLGroups.clear();
         });
-        Vars.asyncCore.processes.add(new BlockStateUpdater());
+        Vars.asyncCore.processes.add(stateUpdater = new BlockStateUpdater());
+        stateUpdater.useCompiledEngine(settings.compiledLogic());
+        stateUpdater.useEventDriven(settings.eventDrivenLogic());
+        stateUpdater.useCombinational(settings.combinationalLogic());
+        stateUpdater.useCycleSkipping(settings.skipPeriodicLogic());
+        stateUpdater.useSleeping(settings.sleepIdleLogic());
+        stateUpdater.useBitSlicing(settings.bitSlicedLogic());
+        stateUpdater.useBytecode(settings.bytecodeLogic());
+        stateUpdater.useChainCollapsing(settings.collapseNodeChains());
+        stateUpdater.useConstantFolding(settings.foldConstants());
+        stateUpdater.useDeadLogicElimination(settings.skipDeadLogic());
+        stateUpdater.useRelayNets(settings.relayNets());
+        stateUpdater.usePullEvaluation(settings.pullEvaluation());
+        stateUpdater.useThreads(settings.logicThreads());
+        stateUpdater.useBudget(settings.logicMaxTicks(), settings.logicTickBudget(), settings.logicDeferDebt());
+        LogicBlock.deadLogicOverlay = settings.deadLogicOverlay();
         modLog("Creating end");
     }
 
@@ -87,6 +104,31 @@ public class ByteLogicMod extends MMAMod {
         modLog("init end");
     }
 
+    @Override
+    public void registerServerCommands(CommandHandler handler) {
+        handler.register("logicrate", "[rate]", "Shows or sets logic ticks per second of current map.", args -> {
+            if (args.length > 0) {
+                if (!Strings.canParsePositiveInt(args[0])) {
+                    Log.err("Rate must be a positive number.");
+                    return;
+                }
+                stateUpdater.updatesPerSecond(Strings.parseInt(args[0]));
+            }
+            Log.info("Logic tick rate: @ per second (actual: @).", stateUpdater.updatesPerSecond(), (int) stateUpdater.tickRate);
+            Log.info("Power graph reads shared by analyzers: @.", stateUpdater.powerSampler.savedReads);
+        });
+        handler.register("analyzerinterval", "[ticks]", "Shows or sets logic ticks between analyzer readings of current map.", args -> {
+            if (args.length > 0) {
+                if (!Strings.canParsePositiveInt(args[0])) {
+                    Log.err("Interval must be a positive number.");
+                    return;
+                }
+                stateUpdater.analyzerInterval(Strings.parseInt(args[0]));
+            }
+            Log.info("Analyzer reading interval: @ ticks.", stateUpdater.analyzerInterval());
+        });
+    }
+
     public void loadContent() {
         modInfo = Vars.mods.getMod(this.getClass());
         modLog("loadContent start");
@@ -0,0 +1,50 @@
+package bytelogic.async;
+
+import arc.struct.*;
+import mindustry.gen.*;
+import mindustry.logic.*;
+
+/**
+ * Control commands of logic buildings, applied in one pass after logic ticks of a frame.
+ * Commands run in order of first request, later requests for the same building only replace the value.
+ */
+public class ActuatorBatch{
+    private final Seq<Building> targets = new Seq<>();
+    private final IntSeq enabled = new IntSeq();
+    private final ObjectIntMap<Building> indices = new ObjectIntMap<>();
+    /** Requests replaced by a later request for the same building since world load */
+    public long mergedCommands;
+
+    /** Queues {@link LAccess#enabled} control of building. */
+    public void enabled(Building target, boolean enabled){
+        int index = indices.get(target, -1);
+        if(index != -1){
+            this.enabled.set(index, enabled ? 1 : 0);
+            mergedCommands++;
+            return;
+        }
+        indices.put(target, targets.size);
+        targets.add(target);
+        this.enabled.add(enabled ? 1 : 0);
+    }
+
+    /** Runs queued commands, called from main thread. */
+    public void apply(){
+        for(int i = 0; i < targets.size; i++){
+            Building target = targets.get(i);
+            if(target.isValid()) target.control(LAccess.enabled, enabled.get(i), 0, 0, 0);
+        }
+        clear();
+    }
+
+    public void reset(){
+        clear();
+        mergedCommands = 0;
+    }
+
+    private void clear(){
+        targets.clear();
+        enabled.clear();
+        indices.clear();
+    }
+}
@@ -1,52 +1,365 @@
 package bytelogic.async;
 
+import arc.*;
+import arc.struct.*;
 import arc.util.*;
-import bytelogic.gen.*;
+import bytelogic.world.blocks.logic.LogicBlock.*;
+import mindustry.*;
 import mindustry.async.*;
+import mindustry.game.*;
+import mindustry.game.EventType.*;
+import mindustry.gen.*;
 
+import static bytelogic.BLVars.modLog;
+
+/**
+ * Runs logic ticks in {@link #process()}, concurrently with main update, if engine allows it.
+ * Buildings see signals of the last finished frame: engine publishes them in {@link #end()}.
+ * Changes of engine requested from main thread during frame, while {@link #process()} may be running, are queued and applied in {@link #end()},
+ * only {@link #flush()} needs engine state right away and stops ticks after the current one.
+ * Amount of ticks per frame is limited by {@link #maxTicksPerFrame} and {@link #maxTickNanos},
+ * missed ticks are dropped or carried to next frames depending on {@link #deferDebt}.
+ */
 public class BlockStateUpdater implements AsyncProcess {
     public float timer = 0;
-    public static final int updatesPerSecond = 60;
-    public static final float deltaScale = updatesPerSecond / Time.toSeconds;
-    ;
+    public static final int defaultUpdatesPerSecond = 60, maxUpdatesPerSecond = 240;
+    /** Rules tag with logic tick rate of the map, saved with map and synced to clients together with rules */
+    public static final String updatesPerSecondTag = "bytelogic-tick-rate";
+    public static final int maxAnalyzerInterval = 60;
+    /** Rules tag with analyzer reading interval of the map, a part of simulation, so it is synced like tick rate */
+    public static final String analyzerIntervalTag = "bytelogic-analyzer-interval";
+    public final LegacyLogicEngine legacyEngine = new LegacyLogicEngine();
+    public final CompiledLogicEngine compiledEngine = new CompiledLogicEngine();
+    /** Power graph values shared by analyzers, engines begin a new pass before sampling them */
+    public final PowerSampler powerSampler = new PowerSampler();
+    /** Control commands queued by buildings during frame, applied in {@link #end()} after logic ticks */
+    public final ActuatorBatch actuators = new ActuatorBatch();
+    private LogicEngine engine = legacyEngine;
+    /** Ticks which are not done yet, including debt of previous frames */
+    private int pendingTicks;
+    /** Ticks and time already spent during current frame */
+    private int frameTicks;
+    private long frameNanos;
+    /** Whether {@link #process()} already ran ticks of current frame, so {@link #end()} does not prepare engine again */
+    private boolean processed;
+
+    public int maxTicksPerFrame = 10;
+    public long maxTickNanos = Time.millisToNanos(8);
+    /** Whether ticks over budget are done in next frames instead of being dropped */
+    public boolean deferDebt = false;
+    /** Limit of carried ticks when {@link #deferDebt} is enabled */
+    public float maxDebtSeconds = 5f;
+
+    /** Ticks per second actually simulated during last second */
+    public float tickRate = defaultUpdatesPerSecond;
+    /** Ticks dropped since world load */
+    public long droppedTicks;
+    private int rateTicks;
+    private float rateTime;
+    private float warnTimer;
+    /** Incremented whenever logic graph changes, buildings resolve their cached wiring again after that, see {@link LogicBuild#updateWiring()} */
+    public int wiringVersion;
+    /** Tick rate of current map, read from {@link #updatesPerSecondTag} only when rules change */
+    private int updatesPerSecond = defaultUpdatesPerSecond;
+    /** Analyzer reading interval of current map, read from {@link #analyzerIntervalTag} together with tick rate */
+    private int analyzerInterval = 1;
+    /** Rules {@link #updatesPerSecond} was read from, clients get a new rules object whenever server sends rules */
+    private @Nullable Rules rateRules;
+    /** Configured buildings, applied to engine in {@link #end()} */
+    private final Seq<LogicBuild> pendingReloads = new Seq<>(false, 16);
+    /** Engine changes requested during frame, applied in {@link #end()} in the same order */
+    private final Seq<Runnable> pendingChanges = new Seq<>();
+    /** Whether frame is between {@link #begin()} and {@link #end()}, so {@link #process()} may be running */
+    private boolean inFrame;
+    /** Set while {@link #process()} runs, {@link #yieldTicks} stops it after the current tick */
+    private volatile boolean ticking, yieldTicks;
+
+    public BlockStateUpdater() {
+        Events.on(BuildTeamChangeEvent.class, e -> {
+            if (e.build instanceof LogicBuild build) invalidate(build);
+        });
+        Events.on(WorldLoadEvent.class, e -> readRules());
+    }
+
+    public LogicEngine engine() {
+        return engine;
+    }
+
+    /** Switches between object-walk and compiled engines, state is carried over through buildings. */
+    public void useCompiledEngine(boolean compiled) {
+        change(() -> {
+            LogicEngine next = compiled ? compiledEngine : legacyEngine;
+            if (next == engine) return;
+            applyReloads();
+            engine.flush();
+            engine.reset();
+            engine = next;
+        });
+    }
+
+    /** Compiled engine evaluates only buildings affected by previous tick. */
+    public void useEventDriven(boolean eventDriven) {
+        change(() -> compiledEngine.eventDriven(eventDriven));
+    }
+
+    /** Compiled engine passes signals through acyclic logic within one tick. */
+    public void useCombinational(boolean combinational) {
+        change(() -> compiledEngine.combinational(combinational));
+    }
+
+    /** Compiled engine replays logic whose state repeats instead of ticking it. */
+    public void useCycleSkipping(boolean skipCycles) {
+        change(() -> compiledEngine.skipCycles(skipCycles));
+    }
+
+    /** Compiled engine stops ticking logic whose state does not change until something touches it. */
+    public void useSleeping(boolean sleepIdle) {
+        change(() -> compiledEngine.sleepIdle(sleepIdle));
+    }
+
+    /** Compiled engine ticks logic carrying only 0 and 1 as packed bits. */
+    public void useBitSlicing(boolean bitSlice) {
+        change(() -> compiledEngine.bitSlice(bitSlice));
+    }
+
+    /** Compiled engine generates classes for logic components, see {@link bytelogic.async.netlist.CircuitCompiler}. */
+    public void useBytecode(boolean bytecode) {
+        change(() -> compiledEngine.bytecode(bytecode));
+    }
+
+    /** Compiled engine passes signal through node chains in one step, see {@link bytelogic.async.netlist.NodeChains}. */
+    public void useChainCollapsing(boolean collapseChains) {
+        change(() -> compiledEngine.collapseChains(collapseChains));
+    }
+
+    /** Compiled engine turns gates fed only by signal blocks into constants, see {@link bytelogic.async.netlist.ConstantFolding}. */
+    public void useConstantFolding(boolean foldConstants) {
+        change(() -> compiledEngine.foldConstants(foldConstants));
+    }
+
+    /** Compiled engine freezes logic which can't reach a controller or a display, see {@link bytelogic.async.netlist.DeadLogic}. */
+    public void useDeadLogicElimination(boolean skipDeadLogic) {
+        change(() -> compiledEngine.skipDeadLogic(skipDeadLogic));
+    }
+
+    /** Compiled engine ticks connected relays as nets, see {@link bytelogic.async.netlist.RelayNetTicker}. */
+    public void useRelayNets(boolean relayNets) {
+        change(() -> compiledEngine.relayNets(relayNets));
+    }
+
+    /** Compiled engine evaluates logic without sinks only when its signals are needed. */
+    public void usePullEvaluation(boolean pullEvaluation) {
+        change(() -> compiledEngine.pullEvaluation(pullEvaluation));
+    }
+
+    /** Signal of building is about to be drawn, called for every visible building, so it does not lock: drawing never overlaps {@link #process()}. */
+    public void demand(LogicBuild build) {
+        engine.demand(build);
+    }
+
+    /** @return whether building is frozen as dead logic, called while drawing, see {@link #demand(LogicBuild)} */
+    public boolean dead(LogicBuild build) {
+        return engine.dead(build);
+    }
+
+    /** Caps worker threads of compiled engine. */
+    public void useThreads(int threads) {
+        change(() -> compiledEngine.threads(threads));
+    }
+
+    /** Writes engine state to buildings, e.g. for saving. */
+    public void flush() {
+        if (inFrame) awaitTicks();
+        applyReloads();
+        engine.flush();
+    }
+
+    /** Must be called when logic graph around this building changes. */
+    public void invalidate(LogicBuild build) {
+        wiringVersion++;
+        change(() -> invalidateNow(build));
+    }
+
+    /** Configuration changes wiring of this building, engine state reaches it before {@code configure} applies the configuration. */
+    public void reconfigure(LogicBuild build, Runnable configure) {
+        change(() -> {
+            invalidateNow(build);
+            configure.run();
+            wiringVersion++;
+        });
+    }
+
+    /** Configuration changed state of this building, see {@link LogicBuild#configChangesWiring()}. */
+    public void reload(LogicBuild build) {
+        pendingReloads.add(build);
+    }
+
+    private void invalidateNow(LogicBuild build) {
+        applyReloads();
+        engine.invalidate(build);
+    }
+
+    /** Runs engine change right away between frames, otherwise queues it until {@link #end()}. */
+    private void change(Runnable change) {
+        if (inFrame) {
+            pendingChanges.add(change);
+        } else {
+            change.run();
+        }
+    }
+
+    /** Stops {@link #process()} after its current tick and waits for it, used only when engine state is needed in the middle of frame. */
+    private void awaitTicks() {
+        yieldTicks = true;
+        while (ticking) Thread.onSpinWait();
+    }
+
+    /** @return logic ticks per second of current map */
+    public int updatesPerSecond() {
+        if (Vars.state.rules != rateRules) readRules();
+        return updatesPerSecond;
+    }
+
+    /** Changes logic tick rate of current map and sends it to clients. */
+    public void updatesPerSecond(int updatesPerSecond) {
+        putTag(updatesPerSecondTag, Math.max(1, Math.min(updatesPerSecond, maxUpdatesPerSecond)));
+    }
+
+    /** @return logic ticks between readings of one analyzer on current map */
+    public int analyzerInterval() {
+        if (Vars.state.rules != rateRules) readRules();
+        return analyzerInterval;
+    }
+
+    /** Changes analyzer reading interval of current map and sends it to clients. */
+    public void analyzerInterval(int analyzerInterval) {
+        putTag(analyzerIntervalTag, Math.max(1, Math.min(analyzerInterval, maxAnalyzerInterval)));
+    }
+
+    private void putTag(String tag, int value) {
+        Vars.state.rules.tags.put(tag, String.valueOf(value));
+        readRules();
+        if (Vars.net.server()) Call.setRules(Vars.state.rules);
+    }
+
+    /** Parses tags of current rules, called on world load and whenever rules are replaced or changed. */
+    private void readRules() {
+        rateRules = Vars.state.rules;
+        updatesPerSecond = rateRules == null ? defaultUpdatesPerSecond
+        : Math.max(1, Math.min(rateRules.tags.getInt(updatesPerSecondTag, defaultUpdatesPerSecond), maxUpdatesPerSecond));
+        analyzerInterval = rateRules == null ? 1
+        : Math.max(1, Math.min(rateRules.tags.getInt(analyzerIntervalTag, 1), maxAnalyzerInterval));
+    }
+
+    /** Sets per-frame tick budget, see {@link bytelogic.customArc.ModSettings#logicMaxTicks()}. */
+    public void useBudget(int maxTicks, int maxMillis, boolean defer) {
+        change(() -> {
+            maxTicksPerFrame = Math.max(maxTicks, 1);
+            maxTickNanos = Time.millisToNanos(Math.max(maxMillis, 1));
+            deferDebt = defer;
+        });
+    }
 
     @Override
     public void begin() {
-        timer += Time.delta * deltaScale;
+        timer += Time.delta * updatesPerSecond() / Time.toSeconds;
+        int ticks = (int) timer;
+        timer -= ticks;
+        pendingTicks += ticks;
+        frameTicks = 0;
+        frameNanos = 0;
+        processed = false;
+        yieldTicks = false;
+        if (pendingTicks > 0) engine.prepare();
+        inFrame = true;
     }
 
     @Override
     public void reset() {
+        inFrame = false;
+        pendingChanges.clear();
         timer = 0;
+        pendingTicks = 0;
+        droppedTicks = 0;
+        tickRate = defaultUpdatesPerSecond;
+        rateTicks = 0;
+        rateTime = 0;
+        pendingReloads.clear();
+        powerSampler.reset();
+        actuators.reset();
+        engine.reset();
     }
 
     @Override
     public void process() {
-       /* if (timer>=1f){
-            timer-=1f;
-
-            for(ByteLogicBuildingc build : BLGroups.byteLogicBuild){
-                build.beforeUpdateSignalState();
-            }
-        }*/
-
+        ticking = true;
+        try {
+            //flush on main thread asked for engine state before ticks started
+            if (yieldTicks || !engine.concurrent()) return;
+            processed = true;
+            runTicks();
+        } finally {
+            ticking = false;
+        }
     }
 
     @Override
     public void end() {
+        inFrame = false;
+        yieldTicks = false;
+        applyReloads();
+        for (Runnable change : pendingChanges) {
+            change.run();
+        }
+        pendingChanges.clear();
+        //engine could not run concurrently, e.g. it was not prepared
+        if (!processed && pendingTicks > 0 && frameTicks < maxTicksPerFrame) {
+            engine.prepare();
+            runTicks();
+        }
+        settleDebt();
+        engine.publish();
+        applyReloads();
+        actuators.apply();
+    }
 
-        while (timer >= 1f) {
-            for (ByteLogicBuildingc build : BLGroups.byteLogicBuild) {
-                build.beforeUpdateSignalState();
-            }
-            for (ByteLogicBuildingc build : BLGroups.byteLogicBuild) {
-                build.updateSignalState();
-            }
-            timer -= 1f;
-        }
-    /*    for(ByteLogicBuildingc build : BLGroups.byteLogicBuild){
-            build.updateSignalState();
-        }*/
-//        AsyncProcess.super.end();
+    /** Runs pending ticks until frame budget is spent. */
+    private void runTicks() {
+        long start = Time.nanos();
+        while (pendingTicks > 0 && frameTicks < maxTicksPerFrame && frameNanos + Time.timeSinceNanos(start) < maxTickNanos && !yieldTicks) {
+            engine.tick();
+            pendingTicks--;
+            frameTicks++;
+        }
+        frameNanos += Time.timeSinceNanos(start);
+    }
+
+    private void settleDebt() {
+        int updatesPerSecond = updatesPerSecond();
+        int limit = deferDebt ? (int) (updatesPerSecond * maxDebtSeconds) : 0;
+        if (pendingTicks > limit) {
+            droppedTicks += pendingTicks - limit;
+            pendingTicks = limit;
+        }
+
+        rateTicks += frameTicks;
+        rateTime += Time.delta;
+        if (rateTime >= Time.toSeconds) {
+            tickRate = rateTicks * Time.toSeconds / rateTime;
+            rateTicks = 0;
+            rateTime = 0;
+        }
+        warnTimer -= Time.delta;
+        if (tickRate < updatesPerSecond * 0.9f && warnTimer <= 0) {
+            warnTimer = Time.toSeconds * 10;
+            modLog("Logic can't keep up: @/@ ticks per second, @ ticks dropped, @ ticks in debt", (int) tickRate, updatesPerSecond, droppedTicks, pendingTicks);
+        }
+    }
+
+    private void applyReloads() {
+        for (LogicBuild build : pendingReloads) {
+            engine.reload(build);
+        }
+        pendingReloads.clear();
     }
 }
@@ -0,0 +1,471 @@
+package bytelogic.async;
+
+import arc.util.*;
+import bytelogic.async.netlist.*;
+import bytelogic.world.blocks.logic.LogicBlock.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs ticks over {@link LogicNetlist}.
+ * Netlist is compiled lazily and dropped (with its state written back) whenever logic graph changes.
+ */
+public class CompiledLogicEngine implements LogicEngine{
+    private final NetlistCompiler compiler = new NetlistCompiler();
+    private @Nullable LogicNetlist netlist;
+    /** Present only in event-driven mode */
+    private @Nullable DirtyTicker ticker;
+    private boolean eventDriven;
+    /** Present only if there are several worker threads and netlist has several tasks */
+    private @Nullable ParallelTicker parallel;
+    /** Present only in combinational mode, replaces other tickers */
+    private @Nullable SettleTicker settle;
+    private boolean combinational;
+    /** Present only if periodic components are skipped, used by full ticks */
+    private @Nullable CycleSkipper skipper;
+    private boolean skipCycles;
+    /** Present only if sink-less components are evaluated on demand, used by full ticks without skipper, also through parallel */
+    private @Nullable LazyTicker lazy;
+    private boolean pullEvaluation;
+    /** Present only if idle components are put to sleep, used by full ticks without skipper */
+    private @Nullable DormantTicker dormant;
+    private boolean sleepIdle;
+    /** Present only if boolean components are ticked as bits, used by full ticks without skipper */
+    private @Nullable BitSliceTicker bits;
+    private boolean bitSlice;
+    /** Present only if components are compiled to bytecode, used by serial full ticks without skipper */
+    private @Nullable CircuitTicker circuits;
+    private boolean bytecode;
+    private boolean collapseChains;
+    private boolean foldConstants;
+    private boolean skipDeadLogic;
+    /** Ticks left until gates which were still settling can be folded, {@code 0} if nothing waits */
+    private int foldTicks;
+    /** Folding changed, netlist is compiled again on next {@link #prepare()} */
+    private boolean refold;
+    /** Present only if relay clusters are ticked as nets, used by full ticks without skipper and bits, also through dormant, lazy and parallel */
+    private @Nullable RelayNetTicker nets;
+    private boolean relayNets;
+    private @Nullable ForkJoinPool pool;
+    private int threads = 1;
+    private boolean dirty;
+
+    public @Nullable LogicNetlist netlist(){
+        return netlist;
+    }
+
+    public @Nullable DirtyTicker ticker(){
+        return ticker;
+    }
+
+    /** Evaluates only buildings affected by changes of previous tick, see {@link DirtyTicker}. */
+    public void eventDriven(boolean eventDriven){
+        if(this.eventDriven == eventDriven) return;
+        this.eventDriven = eventDriven;
+        if(netlist == null) return;
+        //full tick publishes every slot, so pending changes are not lost
+        if(ticker != null) ticker.publish();
+        if(lazy != null) lazy.reset();
+        if(skipper != null) skipper.reset();
+        if(bits != null) bits.reset();
+        if(dormant != null) dormant.reset();
+        if(nets != null) nets.reset();
+        ticker = eventDriven ? new DirtyTicker(netlist) : null;
+    }
+
+    public boolean eventDriven(){
+        return eventDriven;
+    }
+
+    /** Evaluates acyclic logic in topological order within one tick, see {@link SettleTicker}. */
+    public void combinational(boolean combinational){
+        if(this.combinational == combinational) return;
+        this.combinational = combinational;
+        if(netlist == null) return;
+        if(collapseChains){
+            //collapsed chains keep per-hop delay, which combinational ticks don't have
+            invalidate(null);
+            return;
+        }
+        if(ticker != null){
+            //event-driven ticker did not see settle ticks
+            ticker.publish();
+            ticker.seedAll();
+        }
+        if(lazy != null) lazy.reset();
+        if(skipper != null) skipper.reset();
+        if(bits != null) bits.reset();
+        if(dormant != null) dormant.reset();
+        if(nets != null) nets.reset();
+        settle = combinational ? new SettleTicker(netlist) : null;
+    }
+
+    public boolean combinational(){
+        return combinational;
+    }
+
+    /** Replays components whose state repeats, see {@link CycleSkipper}. */
+    public void skipCycles(boolean skipCycles){
+        if(this.skipCycles == skipCycles) return;
+        this.skipCycles = skipCycles;
+        if(netlist == null) return;
+        if(lazy != null) lazy.reset();
+        if(skipper != null) skipper.reset();
+        if(bits != null) bits.reset();
+        skipper = skipCycles ? new CycleSkipper(netlist) : null;
+        bits = bitSliceTicker(netlist);
+        nets = relayNetTicker(netlist);
+        dormant = dormantTicker(netlist);
+        lazy = lazyTicker(netlist);
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean skipCycles(){
+        return skipCycles;
+    }
+
+    public @Nullable CycleSkipper skipper(){
+        return skipper;
+    }
+
+    /** Evaluates components without sinks only when their signals are needed, see {@link LazyTicker}. Skipping periodic components takes precedence. */
+    public void pullEvaluation(boolean pullEvaluation){
+        if(this.pullEvaluation == pullEvaluation) return;
+        this.pullEvaluation = pullEvaluation;
+        if(netlist == null) return;
+        if(lazy != null) lazy.reset();
+        lazy = lazyTicker(netlist);
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean pullEvaluation(){
+        return pullEvaluation;
+    }
+
+    public @Nullable LazyTicker lazy(){
+        return lazy;
+    }
+
+    /** Signal of building is drawn or inspected, see {@link LazyTicker#demand(int)}. */
+    @Override
+    public void demand(LogicBuild build){
+        if(lazy == null) return;
+        int index = slot(build);
+        if(index != -1) lazy.demand(index);
+    }
+
+    /** Ticks components which carry only 0 and 1 as bits, see {@link BitSliceTicker}. Skipping periodic components takes precedence. */
+    public void bitSlice(boolean bitSlice){
+        if(this.bitSlice == bitSlice) return;
+        this.bitSlice = bitSlice;
+        if(netlist == null) return;
+        if(lazy != null) lazy.reset();
+        if(bits != null) bits.reset();
+        bits = bitSliceTicker(netlist);
+        nets = relayNetTicker(netlist);
+        dormant = dormantTicker(netlist);
+        lazy = lazyTicker(netlist);
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean bitSlice(){
+        return bitSlice;
+    }
+
+    /** Stops ticking components whose state does not change, see {@link DormantTicker}. Skipping periodic components takes precedence. */
+    public void sleepIdle(boolean sleepIdle){
+        if(this.sleepIdle == sleepIdle) return;
+        this.sleepIdle = sleepIdle;
+        if(netlist == null) return;
+        if(lazy != null) lazy.reset();
+        dormant = dormantTicker(netlist);
+        lazy = lazyTicker(netlist);
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean sleepIdle(){
+        return sleepIdle;
+    }
+
+    public @Nullable DormantTicker dormant(){
+        return dormant;
+    }
+
+    /** Runs full ticks through generated classes, see {@link CircuitCompiler}. Ignored where classes can't be generated. */
+    public void bytecode(boolean bytecode){
+        bytecode &= CircuitCompiler.available();
+        if(this.bytecode == bytecode) return;
+        this.bytecode = bytecode;
+        if(netlist == null) return;
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean bytecode(){
+        return bytecode;
+    }
+
+    /** Turns pass-through node chains into single delayed hops, see {@link NodeChains}. Not used by combinational ticks. */
+    public void collapseChains(boolean collapseChains){
+        if(this.collapseChains == collapseChains) return;
+        this.collapseChains = collapseChains;
+        if(netlist != null) invalidate(null);
+    }
+
+    public boolean collapseChains(){
+        return collapseChains;
+    }
+
+    /** Turns gates fed only by signal blocks into constants once they settle, see {@link ConstantFolding}. */
+    public void foldConstants(boolean foldConstants){
+        if(this.foldConstants == foldConstants) return;
+        this.foldConstants = foldConstants;
+        if(netlist != null) invalidate(null);
+    }
+
+    public boolean foldConstants(){
+        return foldConstants;
+    }
+
+    /** Freezes logic which can't reach a controller or a display, see {@link DeadLogic}. */
+    public void skipDeadLogic(boolean skipDeadLogic){
+        if(this.skipDeadLogic == skipDeadLogic) return;
+        this.skipDeadLogic = skipDeadLogic;
+        if(netlist != null) invalidate(null);
+    }
+
+    public boolean skipDeadLogic(){
+        return skipDeadLogic;
+    }
+
+    /** @return whether building is frozen as dead logic, see {@link DeadLogic} */
+    @Override
+    public boolean dead(LogicBuild build){
+        int index = slot(build);
+        return index != -1 && netlist.dead(index);
+    }
+
+    /** @return amount of buildings frozen as dead logic in current netlist */
+    public int deadLogic(){
+        return netlist == null ? 0 : netlist.deadSlots.length;
+    }
+
+    /** Ticks connected relays as nets, see {@link RelayNetTicker}. Skipping and bit slicing take precedence. */
+    public void relayNets(boolean relayNets){
+        if(this.relayNets == relayNets) return;
+        this.relayNets = relayNets;
+        if(netlist == null) return;
+        if(lazy != null) lazy.reset();
+        nets = relayNetTicker(netlist);
+        dormant = dormantTicker(netlist);
+        lazy = lazyTicker(netlist);
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public boolean relayNets(){
+        return relayNets;
+    }
+
+    public @Nullable RelayNetTicker nets(){
+        return nets;
+    }
+
+    /** Maximum amount of worker threads for full ticks, {@code 1} runs everything on logic thread. */
+    public void threads(int threads){
+        threads = Math.max(threads, 1);
+        if(this.threads == threads) return;
+        this.threads = threads;
+        if(pool != null){
+            pool.shutdown();
+            pool = null;
+        }
+        if(threads > 1){
+            pool = new ForkJoinPool(threads);
+        }
+        if(netlist == null) return;
+        parallel = parallelTicker(netlist);
+        circuits = circuitTicker(netlist);
+    }
+
+    public int threads(){
+        return threads;
+    }
+
+    private @Nullable ParallelTicker parallelTicker(LogicNetlist netlist){
+        if(pool == null) return null;
+        ParallelTicker ticker = new ParallelTicker(netlist, skipper, lazy, dormant, bits, nets, threads, bytecode);
+        return ticker.parallel() ? ticker : null;
+    }
+
+    /** Previous ticker has to catch its components up before tickers it uses change, created after tickers it uses. */
+    private @Nullable LazyTicker lazyTicker(LogicNetlist netlist){
+        return pullEvaluation && skipper == null ? new LazyTicker(netlist, dormant, bits, nets) : null;
+    }
+
+    private @Nullable BitSliceTicker bitSliceTicker(LogicNetlist netlist){
+        return bitSlice && skipper == null ? new BitSliceTicker(netlist) : null;
+    }
+
+    private @Nullable DormantTicker dormantTicker(LogicNetlist netlist){
+        return sleepIdle && skipper == null ? new DormantTicker(netlist, bits, nets) : null;
+    }
+
+    /** Previous nets are materialized, so it may be called whenever tickers it depends on change, tickers using it are created after it. */
+    private @Nullable RelayNetTicker relayNetTicker(LogicNetlist netlist){
+        if(nets != null) nets.reset();
+        return relayNets && skipper == null && bits == null ? new RelayNetTicker(netlist) : null;
+    }
+
+    private @Nullable CircuitTicker circuitTicker(LogicNetlist netlist){
+        if(!bytecode || skipper != null || lazy != null || dormant != null || bits != null || parallel != null || nets != null) return null;
+        CircuitTicker ticker = new CircuitTicker(netlist, 0, netlist.componentStart.length - 1);
+        return ticker.compiled() ? ticker : null;
+    }
+
+    @Override
+    public void prepare(){
+        if(refold){
+            //folding is decided by compiler, so reconfigured or settled constants are compiled again
+            refold = false;
+            if(netlist != null) invalidate(null);
+        }
+        if(netlist == null){
+            compiler.collapseChains = collapseChains && !combinational;
+            compiler.foldConstants = foldConstants;
+            compiler.skipDeadLogic = skipDeadLogic;
+            netlist = compiler.compile();
+            foldTicks = netlist.foldTicks;
+            ticker = eventDriven ? new DirtyTicker(netlist) : null;
+            skipper = skipCycles ? new CycleSkipper(netlist) : null;
+            bits = bitSliceTicker(netlist);
+            nets = relayNetTicker(netlist);
+            dormant = dormantTicker(netlist);
+            lazy = lazyTicker(netlist);
+            parallel = parallelTicker(netlist);
+            circuits = circuitTicker(netlist);
+            settle = combinational ? new SettleTicker(netlist) : null;
+        }
+        netlist.sample();
+    }
+
+    @Override
+    public boolean concurrent(){
+        return netlist != null;
+    }
+
+    @Override
+    public void tick(){
+        if(netlist == null) prepare();
+        if(settle != null){
+            settle.tick();
+        }else if(ticker != null){
+            ticker.tick();
+        }else if(parallel != null){
+            parallel.tick(pool);
+        }else if(skipper != null){
+            skipper.tick();
+        }else if(lazy != null){
+            lazy.tick();
+        }else if(dormant != null){
+            dormant.tick();
+        }else if(bits != null){
+            bits.tick();
+        }else if(nets != null){
+            nets.tick();
+        }else if(circuits != null){
+            circuits.tick();
+        }else{
+            netlist.tick();
+        }
+        if(foldTicks > 0 && --foldTicks == 0) refold = true;
+        dirty = true;
+    }
+
+    @Override
+    public void publish(){
+        if(netlist != null && dirty){
+            if(ticker != null && settle == null){
+                ticker.publish();
+                netlist.publishChains();
+            }else{
+                if(skipper != null) skipper.materializeSignals();
+                if(bits != null) bits.materializeSignals();
+                if(nets != null) nets.materialize();
+                netlist.publish();
+            }
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void flush(){
+        if(netlist != null){
+            if(lazy != null) lazy.catchUp();
+            if(skipper != null) skipper.materialize();
+            if(bits != null) bits.materialize();
+            if(nets != null) nets.materialize();
+            netlist.writeBack();
+            if(ticker != null) ticker.publish();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void invalidate(LogicBuild build){
+        flush();
+        netlist = null;
+        foldTicks = 0;
+        ticker = null;
+        parallel = null;
+        circuits = null;
+        settle = null;
+        skipper = null;
+        bits = null;
+        dormant = null;
+        nets = null;
+        lazy = null;
+    }
+
+    @Override
+    public void reload(LogicBuild build){
+        int index = slot(build);
+        if(index == -1) return;
+        //lazy component catches up through tickers below, before they let go of it
+        if(lazy != null) lazy.input(index);
+        if(skipper != null) skipper.input(index);
+        if(bits != null) bits.input(index);
+        if(dormant != null) dormant.wake(index);
+        if(nets != null) nets.input(index);
+        if(netlist.folds(index)) refold = true;
+        netlist.reload(index);
+        if(ticker != null) ticker.seed(index);
+    }
+
+    private int slot(LogicBuild build){
+        int index = build.netlistIndex;
+        if(netlist == null || index < 0 || index >= netlist.size || netlist.builds[index] != build) return -1;
+        return index;
+    }
+
+    @Override
+    public void reset(){
+        netlist = null;
+        ticker = null;
+        parallel = null;
+        circuits = null;
+        settle = null;
+        skipper = null;
+        bits = null;
+        dormant = null;
+        nets = null;
+        lazy = null;
+        foldTicks = 0;
+        refold = false;
+        dirty = false;
+    }
+}
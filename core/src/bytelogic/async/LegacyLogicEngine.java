@@ -0,0 +1,19 @@
+package bytelogic.async;
+
+import bytelogic.*;
+import bytelogic.gen.*;
+
+/** Walks building objects and lets them exchange signals through {@link ByteLogicBuildingc#acceptSignal}. */
+public class LegacyLogicEngine implements LogicEngine{
+
+    @Override
+    public void tick(){
+        BLVars.stateUpdater.powerSampler.begin();
+        for(ByteLogicBuildingc build : BLGroups.byteLogicBuild){
+            build.beforeUpdateSignalState();
+        }
+        for(ByteLogicBuildingc build : BLGroups.byteLogicBuild){
+            build.updateSignalState();
+        }
+    }
+}
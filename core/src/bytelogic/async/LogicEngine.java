@@ -0,0 +1,47 @@
+package bytelogic.async;
+
+import bytelogic.world.blocks.logic.LogicBlock.*;
+
+/** Strategy used by {@link BlockStateUpdater} to run logic ticks. */
+public interface LogicEngine{
+    /** Called from main thread before ticks of a frame, reads everything ticks need from world. */
+    default void prepare(){
+    }
+
+    /** @return whether {@link #tick()} may run concurrently with main update, it must not touch buildings then */
+    default boolean concurrent(){
+        return false;
+    }
+
+    /** Runs one logic tick: every building sends its signal, then latches received ones. */
+    void tick();
+
+    /** Called after all ticks of a frame, makes signals visible to drawing and {@code Building.update()}. */
+    default void publish(){
+    }
+
+    /** Writes internal state back to buildings, e.g. before saving. */
+    default void flush(){
+    }
+
+    /** Logic graph around this building changed: placement, removal, rotation or configuration. */
+    default void invalidate(LogicBuild build){
+    }
+
+    /** Configuration which does not change wiring was applied to this building, called from main thread when ticks are not running. */
+    default void reload(LogicBuild build){
+    }
+
+    /** Signal of this building is about to be seen by player, called from main thread when ticks are not running. */
+    default void demand(LogicBuild build){
+    }
+
+    /** @return whether this building is not ticked because its signal can't reach anything, called from main thread when ticks are not running. */
+    default boolean dead(LogicBuild build){
+        return false;
+    }
+
+    /** World was unloaded, all buildings are gone. */
+    default void reset(){
+    }
+}
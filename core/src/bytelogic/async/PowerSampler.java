@@ -0,0 +1,64 @@
+package bytelogic.async;
+
+import arc.struct.*;
+import mindustry.world.blocks.power.*;
+
+import java.util.*;
+
+/**
+ * Power graph values shared by analyzers during one sampling pass.
+ * Every graph is read at most once per pass, no matter how many analyzers watch its buildings.
+ */
+public class PowerSampler{
+    private final ObjectIntMap<PowerGraph> slots = new ObjectIntMap<>();
+    /** Values of graphs in order of first use, {@code NaN} if not read yet */
+    private float[] balance = new float[16], battery = new float[16];
+    /** Reads answered from values of current pass since world load */
+    public long savedReads;
+
+    /** Forgets values of previous pass, called before analyzers are sampled. */
+    public void begin(){
+        slots.clear();
+    }
+
+    public void reset(){
+        slots.clear();
+        savedReads = 0;
+    }
+
+    /** @return {@link PowerGraph#getPowerBalance()} of graph */
+    public float balance(PowerGraph graph){
+        int slot = slot(graph);
+        if(balance[slot] != balance[slot]){
+            balance[slot] = graph.getPowerBalance();
+        }else{
+            savedReads++;
+        }
+        return balance[slot];
+    }
+
+    /** @return {@link PowerGraph#getBatteryStored()} of graph */
+    public float battery(PowerGraph graph){
+        int slot = slot(graph);
+        if(battery[slot] != battery[slot]){
+            battery[slot] = graph.getBatteryStored();
+        }else{
+            savedReads++;
+        }
+        return battery[slot];
+    }
+
+    private int slot(PowerGraph graph){
+        int slot = slots.get(graph, -1);
+        if(slot != -1) return slot;
+
+        slot = slots.size;
+        if(slot == balance.length){
+            balance = Arrays.copyOf(balance, slot * 2);
+            battery = Arrays.copyOf(battery, slot * 2);
+        }
+        balance[slot] = battery[slot] = Float.NaN;
+        slots.put(graph, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,252 @@
+package bytelogic.async.netlist;
+
+import bytelogic.world.blocks.logic.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Ticks components of {@link LogicNetlist} whose signals can only be 0 or 1 as bits packed into {@code long} words.
+ * Such component consists of relays, routers, nodes, constants, {@code not}/{@code identity} and {@code and}/{@code or}/{@code xor} gates,
+ * every one of them maps 0 and 1 to 0 or 1, so once all its state is 0 or 1 it stays so until configuration changes it.
+ * Latching evaluates 64 slots with a few bitwise operations, slot kinds are selected by masks.
+ * Words never hold slots of two components, so components can be ticked from several threads.
+ * Other components and components with other values are ticked as usual and packed again once their state allows it.
+ */
+public class BitSliceTicker{
+    /** Ticks between attempts to pack component whose state is not boolean */
+    public static int retryTicks = 64;
+
+    public final LogicNetlist netlist;
+    final int components;
+    final int[] componentOf;
+    /** Words of component {@code c} are {@code wordStart[c]..wordStart[c + 1]} */
+    final int[] wordStart;
+    /** Word and bit of slot */
+    final int[] word;
+    final byte[] bit;
+    /** Whether component consists only of supported slots */
+    final boolean[] supported;
+    final boolean[] sliced;
+    final int[] retry;
+    final GateBatch[] batches;
+
+    final long[] last, next, left, right;
+    /** Slots whose next is kept after latch, i.e. constants */
+    final long[] keepMask;
+    /** {@code last = next} */
+    final long[] passMask;
+    /** {@code last = ~next} */
+    final long[] notMask;
+    /** {@code last = left op right} */
+    final long[] andMask, orMask, xorMask;
+
+    public BitSliceTicker(LogicNetlist netlist){
+        this.netlist = netlist;
+        int[] componentStart = netlist.componentStart;
+        components = componentStart.length - 1;
+        componentOf = new int[netlist.size];
+        wordStart = new int[components + 1];
+        word = new int[netlist.size];
+        bit = new byte[netlist.size];
+        supported = new boolean[components];
+        sliced = new boolean[components];
+        retry = new int[components];
+        batches = new GateBatch[components];
+
+        for(int c = 0; c < components; c++){
+            int from = componentStart[c], to = componentStart[c + 1];
+            wordStart[c + 1] = wordStart[c] + (to - from + 63) / 64;
+            supported[c] = true;
+            for(int i = from; i < to; i++){
+                componentOf[i] = c;
+                word[i] = wordStart[c] + (i - from) / 64;
+                bit[i] = (byte)((i - from) % 64);
+            }
+        }
+
+        int words = wordStart[components];
+        last = new long[words];
+        next = new long[words];
+        left = new long[words];
+        right = new long[words];
+        keepMask = new long[words];
+        passMask = new long[words];
+        notMask = new long[words];
+        andMask = new long[words];
+        orMask = new long[words];
+        xorMask = new long[words];
+
+        for(int i = 0; i < netlist.size; i++){
+            long[] mask = mask(i);
+            if(mask == null){
+                supported[componentOf[i]] = false;
+                continue;
+            }
+            mask[word[i]] |= 1L << bit[i];
+            if(netlist.kinds[i] == kindConstant) keepMask[word[i]] |= 1L << bit[i];
+        }
+    }
+
+    /** @return mask selecting latch of slot, {@code null} if slot may produce values other than 0 and 1 */
+    long[] mask(int i){
+        byte kind = netlist.kinds[i];
+        GateOpcode opcode = netlist.opcodes[i];
+        return switch(kind){
+            case kindPass, kindConstant -> passMask;
+            case kindUnary -> opcode == GateOpcode.not ? notMask : opcode == GateOpcode.identity ? passMask : null;
+            case kindBinary -> opcode == GateOpcode.and ? andMask : opcode == GateOpcode.or ? orMask : opcode == GateOpcode.xor ? xorMask : null;
+            default -> null;
+        };
+    }
+
+    /** Ticks components {@code from..to}. */
+    public void tick(int from, int to){
+        int[] componentStart = netlist.componentStart;
+        for(int c = from; c < to; c++){
+            if(!sliced[c] && supported[c] && --retry[c] <= 0){
+                if(isBoolean(c)){
+                    pack(c);
+                }else{
+                    retry[c] = retryTicks;
+                }
+            }
+
+            if(sliced[c]){
+                emit(componentStart[c], componentStart[c + 1]);
+                latch(wordStart[c], wordStart[c + 1]);
+            }else{
+                if(batches[c] == null) batches[c] = new GateBatch(netlist, componentStart[c], componentStart[c + 1]);
+                netlist.emit(componentStart[c], componentStart[c + 1]);
+                batches[c].latch();
+            }
+        }
+    }
+
+    public void tick(){
+        tick(0, components);
+    }
+
+    /** @return amount of components ticked as bits */
+    public int sliced(){
+        int count = 0;
+        for(boolean s : sliced){
+            if(s) count++;
+        }
+        return count;
+    }
+
+    /** Same as {@link LogicNetlist#emit(int)} for every slot, router side counters stay in netlist. */
+    void emit(int from, int to){
+        LogicNetlist netlist = this.netlist;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget, outPort = netlist.outPort, outGate = netlist.outGate;
+        byte[] sides = netlist.sides;
+        int[] word = this.word;
+        byte[] bit = this.bit;
+        long[] last = this.last, next = this.next;
+
+        for(int i = from; i < to; i++){
+            int start = outStart[i], end = outStart[i + 1];
+            if(start == end) continue;
+            long signal = (last[word[i]] >>> bit[i]) & 1L;
+            for(int e = start; e < end; e++){
+                int gate = outGate[e];
+                if(gate != -1 && side(sides[i], gate) != 0) continue;
+                int target = outTarget[e], port = outPort[e];
+                if(port == portSignal){
+                    next[word[target]] |= signal << bit[target];
+                }else if(port < portRouter){
+                    long[] input = port == portSide ? left : right;
+                    int w = word[target], b = bit[target];
+                    input[w] = (input[w] & ~(1L << b)) | signal << b;
+                }else{
+                    sides[target] = CompiledCircuit.receive(sides[target], port, (int)signal);
+                    next[word[target]] |= signal << bit[target];
+                }
+            }
+        }
+    }
+
+    /** Same as {@link LogicNetlist#latch(int)} for 64 slots at once. */
+    void latch(int from, int to){
+        long[] last = this.last, next = this.next, left = this.left, right = this.right;
+        for(int w = from; w < to; w++){
+            long n = next[w], l = left[w], r = right[w];
+            last[w] = (passMask[w] & n) | (notMask[w] & ~n) | (andMask[w] & l & r) | (orMask[w] & (l | r)) | (xorMask[w] & (l ^ r));
+            next[w] = n & keepMask[w];
+            left[w] = right[w] = 0;
+        }
+    }
+
+    /** @return whether every value of component is 0 or 1 */
+    boolean isBoolean(int c){
+        LogicNetlist netlist = this.netlist;
+        for(int i = netlist.componentStart[c], to = netlist.componentStart[c + 1]; i < to; i++){
+            if((netlist.last[i] | netlist.next[i] | netlist.inputs[i * 2] | netlist.inputs[i * 2 + 1]) >>> 1 != 0) return false;
+        }
+        return true;
+    }
+
+    void pack(int c){
+        LogicNetlist netlist = this.netlist;
+        for(int w = wordStart[c]; w < wordStart[c + 1]; w++){
+            last[w] = next[w] = left[w] = right[w] = 0;
+        }
+        for(int i = netlist.componentStart[c], to = netlist.componentStart[c + 1]; i < to; i++){
+            int w = word[i], b = bit[i];
+            last[w] |= (long)netlist.last[i] << b;
+            next[w] |= (long)netlist.next[i] << b;
+            left[w] |= (long)netlist.inputs[i * 2] << b;
+            right[w] |= (long)netlist.inputs[i * 2 + 1] << b;
+        }
+        sliced[c] = true;
+    }
+
+    /** Something outside of component is about to change slot state, component goes back to ints. Must be called before the change. */
+    public void input(int slot){
+        int c = componentOf[slot];
+        if(sliced[c]){
+            materialize(c);
+            sliced[c] = false;
+        }
+        retry[c] = 0;
+    }
+
+    /** Copies state of packed components into netlist arrays, components stay packed. */
+    public void materialize(){
+        for(int c = 0; c < components; c++){
+            if(sliced[c]) materialize(c);
+        }
+    }
+
+    /** Copies only signals of packed components, enough for {@link LogicNetlist#publish()}. */
+    public void materializeSignals(){
+        int[] componentStart = netlist.componentStart;
+        int[] out = netlist.last;
+        for(int c = 0; c < components; c++){
+            if(!sliced[c]) continue;
+            for(int i = componentStart[c]; i < componentStart[c + 1]; i++){
+                out[i] = (int)(last[word[i]] >>> bit[i]) & 1;
+            }
+        }
+    }
+
+    /** Materializes everything and unpacks all components, e.g. before another ticker takes over. */
+    public void reset(){
+        for(int c = 0; c < components; c++){
+            if(sliced[c]) materialize(c);
+            sliced[c] = false;
+            retry[c] = 0;
+        }
+    }
+
+    void materialize(int c){
+        LogicNetlist netlist = this.netlist;
+        for(int i = netlist.componentStart[c], to = netlist.componentStart[c + 1]; i < to; i++){
+            int w = word[i], b = bit[i];
+            netlist.last[i] = (int)(last[w] >>> b) & 1;
+            netlist.next[i] = (int)(next[w] >>> b) & 1;
+            netlist.inputs[i * 2] = (int)(left[w] >>> b) & 1;
+            netlist.inputs[i * 2 + 1] = (int)(right[w] >>> b) & 1;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package bytelogic.async.netlist;
+
+import arc.util.*;
+import bytelogic.world.blocks.logic.*;
+import org.mozilla.classfile.*;
+
+import static bytelogic.BLVars.modLog;
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Generates a {@link CompiledCircuit} class for a range of {@link LogicNetlist} slots.
+ * Every edge and every built-in gate becomes straight-line bytecode with constant indices, so JIT can optimize the whole circuit at once.
+ * Slots without {@link GateOpcode} call {@link LogicNetlist#latch(int)}.
+ * Classes are written with {@link ClassFileWriter} of rhino and defined in their own class loader, so they are unloaded together with netlist.
+ * Android can't load generated bytecode, netlist is interpreted there.
+ */
+public class CircuitCompiler{
+    /** Generated methods are split below HotSpot limit of compiled method size (8000 bytes) */
+    public static int maxMethodBytes = 6000;
+    /** Maximum amount of slots in one generated class, keeps constant pool small */
+    public static int maxClassSlots = 4096;
+
+    private static final String superName = CompiledCircuit.class.getName(), netlistName = LogicNetlist.class.getName();
+    private static final int localLast = 1, localNext = 2, localInputs = 3, localSides = 4, localSignal = 5;
+    private static boolean available = !OS.isAndroid;
+    private static int classes;
+
+    /** @return false if this platform can't load generated classes */
+    public static boolean available(){
+        return available;
+    }
+
+    /** @return circuit ticking slots {@code from..to}, {@code null} if classes can't be generated */
+    public static @Nullable CompiledCircuit compile(LogicNetlist netlist, int from, int to){
+        if(!available) return null;
+        try{
+            String name = "bytelogic.async.netlist.GeneratedCircuit" + classes++;
+            byte[] bytes = generate(netlist, name, from, to);
+            CompiledCircuit circuit = (CompiledCircuit)new CircuitLoader().define(name, bytes).getDeclaredConstructor().newInstance();
+            circuit.init(netlist);
+            return circuit;
+        }catch(Throwable e){
+            available = false;
+            modLog("Logic bytecode compilation is not available, netlist will be interpreted: @", e);
+            return null;
+        }
+    }
+
+    static byte[] generate(LogicNetlist netlist, String name, int from, int to){
+        ClassFileWriter cfw = new ClassFileWriter(name, superName, "<circuit>");
+
+        cfw.startMethod("<init>", "()V", ClassFileWriter.ACC_PUBLIC);
+        cfw.addLoadThis();
+        cfw.addInvoke(ByteCode.INVOKESPECIAL, superName, "<init>", "()V");
+        cfw.add(ByteCode.RETURN);
+        cfw.stopMethod((short)1);
+
+        //all slots emit before any slot latches
+        int emitMethods = 0, latchMethods = 0;
+        for(int i = from; i < to; ){
+            startChunk(cfw, "emit" + emitMethods++);
+            do emit(cfw, netlist, i++); while(i < to && cfw.getCurrentCodeOffset() < maxMethodBytes);
+            stopChunk(cfw);
+        }
+        for(int i = from; i < to; ){
+            startChunk(cfw, "latch" + latchMethods++);
+            do latch(cfw, netlist, i++); while(i < to && cfw.getCurrentCodeOffset() < maxMethodBytes);
+            stopChunk(cfw);
+        }
+
+        cfw.startMethod("tick", "()V", ClassFileWriter.ACC_PUBLIC);
+        for(int m = 0; m < emitMethods; m++){
+            cfw.addLoadThis();
+            cfw.addInvoke(ByteCode.INVOKESPECIAL, name, "emit" + m, "()V");
+        }
+        for(int m = 0; m < latchMethods; m++){
+            cfw.addLoadThis();
+            cfw.addInvoke(ByteCode.INVOKESPECIAL, name, "latch" + m, "()V");
+        }
+        cfw.add(ByteCode.RETURN);
+        cfw.stopMethod((short)1);
+
+        return cfw.toByteArray();
+    }
+
+    /** Starts method with netlist arrays loaded into locals. */
+    static void startChunk(ClassFileWriter cfw, String method){
+        cfw.startMethod(method, "()V", ClassFileWriter.ACC_PRIVATE);
+        loadField(cfw, "last", localLast, "[I");
+        loadField(cfw, "next", localNext, "[I");
+        loadField(cfw, "inputs", localInputs, "[I");
+        loadField(cfw, "sides", localSides, "[B");
+    }
+
+    static void stopChunk(ClassFileWriter cfw){
+        cfw.add(ByteCode.RETURN);
+        cfw.stopMethod((short)(localSignal + 1));
+    }
+
+    static void loadField(ClassFileWriter cfw, String field, int local, String type){
+        cfw.addLoadThis();
+        cfw.add(ByteCode.GETFIELD, superName, field, type);
+        cfw.addAStore(local);
+    }
+
+    /** Same as {@link LogicNetlist#emit(int)}. */
+    static void emit(ClassFileWriter cfw, LogicNetlist netlist, int i){
+        int start = netlist.outStart[i], end = netlist.outStart[i + 1];
+        if(start == end) return;
+        cfw.addALoad(localLast);
+        cfw.addPush(i);
+        cfw.add(ByteCode.IALOAD);
+        cfw.addIStore(localSignal);
+
+        for(int e = start; e < end; e++){
+            int gate = netlist.outGate[e], target = netlist.outTarget[e], port = netlist.outPort[e];
+            int closed = -1;
+            if(gate != -1){
+                closed = cfw.acquireLabel();
+                cfw.addALoad(localSides);
+                cfw.addPush(i);
+                cfw.add(ByteCode.BALOAD);
+                cfw.addPush(gate << 1);
+                cfw.add(ByteCode.ISHR);
+                cfw.addPush(3);
+                cfw.add(ByteCode.IAND);
+                cfw.add(ByteCode.IFNE, closed);
+            }
+
+            if(port == portSignal){
+                orNext(cfw, target);
+            }else if(port < portRouter){
+                cfw.addALoad(localInputs);
+                cfw.addPush(target * 2 + port - portSide);
+                cfw.addILoad(localSignal);
+                cfw.add(ByteCode.IASTORE);
+            }else{
+                cfw.addALoad(localSides);
+                cfw.addPush(target);
+                cfw.add(ByteCode.DUP2);
+                cfw.add(ByteCode.BALOAD);
+                cfw.addPush(port);
+                cfw.addILoad(localSignal);
+                cfw.addInvoke(ByteCode.INVOKESTATIC, superName, "receive", "(BII)B");
+                cfw.add(ByteCode.BASTORE);
+                orNext(cfw, target);
+            }
+
+            if(closed != -1) cfw.markLabel(closed);
+        }
+    }
+
+    /** {@code next[target] |= signal} */
+    static void orNext(ClassFileWriter cfw, int target){
+        cfw.addALoad(localNext);
+        cfw.addPush(target);
+        cfw.add(ByteCode.DUP2);
+        cfw.add(ByteCode.IALOAD);
+        cfw.addILoad(localSignal);
+        cfw.add(ByteCode.IOR);
+        cfw.add(ByteCode.IASTORE);
+    }
+
+    /** Same as {@link LogicNetlist#latch(int)}. */
+    static void latch(ClassFileWriter cfw, LogicNetlist netlist, int i){
+        byte kind = netlist.kinds[i];
+        GateOpcode opcode = netlist.opcodes[i];
+        switch(kind){
+            case kindPass -> {
+                store(cfw, localLast, i, () -> load(cfw, localNext, i));
+                clear(cfw, localNext, i);
+            }
+            case kindConstant, kindAnalyzer -> store(cfw, localLast, i, () -> load(cfw, localNext, i));
+            case kindUnary -> {
+                if(opcode == null || !opcode.isUnary()){
+                    interpret(cfw, i);
+                    return;
+                }
+                store(cfw, localLast, i, () -> {
+                    load(cfw, localNext, i);
+                    if(opcode == GateOpcode.not) cfw.addInvoke(ByteCode.INVOKESTATIC, superName, "not", "(I)I");
+                });
+                clear(cfw, localNext, i);
+            }
+            case kindBinary -> {
+                if(opcode == null || opcode.isUnary()){
+                    interpret(cfw, i);
+                    return;
+                }
+                int left = i * 2, right = i * 2 + 1;
+                if(netlist.flipped[i]){
+                    left = right;
+                    right = i * 2;
+                }
+                int leftInput = left, rightInput = right;
+                store(cfw, localLast, i, () -> {
+                    load(cfw, localInputs, leftInput);
+                    load(cfw, localInputs, rightInput);
+                    binary(cfw, opcode);
+                });
+                clear(cfw, localInputs, i * 2);
+                clear(cfw, localInputs, i * 2 + 1);
+                clear(cfw, localNext, i);
+            }
+            default -> interpret(cfw, i);
+        }
+    }
+
+    static void binary(ClassFileWriter cfw, GateOpcode opcode){
+        switch(opcode){
+            case and -> cfw.add(ByteCode.IAND);
+            case or -> cfw.add(ByteCode.IOR);
+            case xor -> cfw.add(ByteCode.IXOR);
+            case mul -> cfw.add(ByteCode.IMUL);
+            default -> cfw.addInvoke(ByteCode.INVOKESTATIC, superName, opcode.name(), "(II)I");
+        }
+    }
+
+    /** {@code netlist.latch(i)} */
+    static void interpret(ClassFileWriter cfw, int i){
+        cfw.addLoadThis();
+        cfw.add(ByteCode.GETFIELD, superName, "netlist", "L" + netlistName.replace('.', '/') + ";");
+        cfw.addPush(i);
+        cfw.addInvoke(ByteCode.INVOKEVIRTUAL, netlistName, "latch", "(I)V");
+    }
+
+    static void load(ClassFileWriter cfw, int array, int index){
+        cfw.addALoad(array);
+        cfw.addPush(index);
+        cfw.add(ByteCode.IALOAD);
+    }
+
+    /** {@code array[index] = value}, value is pushed by {@code value} */
+    static void store(ClassFileWriter cfw, int array, int index, Runnable value){
+        cfw.addALoad(array);
+        cfw.addPush(index);
+        value.run();
+        cfw.add(ByteCode.IASTORE);
+    }
+
+    static void clear(ClassFileWriter cfw, int array, int index){
+        cfw.addALoad(array);
+        cfw.addPush(index);
+        cfw.addPush(0);
+        cfw.add(ByteCode.IASTORE);
+    }
+
+    static class CircuitLoader extends ClassLoader{
+        CircuitLoader(){
+            super(CompiledCircuit.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes){
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
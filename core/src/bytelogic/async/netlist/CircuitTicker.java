@@ -0,0 +1,63 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+/**
+ * Ticks components of a range through classes generated by {@link CircuitCompiler}.
+ * Neighbour components are packed into one class up to {@link CircuitCompiler#maxClassSlots},
+ * bigger components and everything on platforms without class generation are interpreted.
+ */
+public class CircuitTicker{
+    public final LogicNetlist netlist;
+    /** Slots of segment {@code s} are {@code segmentStart[s]..segmentStart[s + 1]} */
+    final int[] segmentStart;
+    /** Compiled segments, {@code null} for interpreted ones */
+    final CompiledCircuit[] circuits;
+    final GateBatch[] batches;
+
+    /** Compiles components {@code from..to}. */
+    public CircuitTicker(LogicNetlist netlist, int from, int to){
+        this.netlist = netlist;
+        int[] componentStart = netlist.componentStart;
+
+        IntSeq starts = new IntSeq();
+        starts.add(componentStart[from]);
+        for(int c = from; c < to; c++){
+            int start = starts.peek(), end = componentStart[c + 1];
+            //component is added to current segment unless it gets too big
+            if(end - start > CircuitCompiler.maxClassSlots && componentStart[c] != start){
+                starts.add(componentStart[c]);
+            }
+        }
+        starts.add(componentStart[to]);
+        segmentStart = starts.toArray();
+
+        int segments = segmentStart.length - 1;
+        circuits = new CompiledCircuit[segments];
+        batches = new GateBatch[segments];
+        for(int s = 0; s < segments; s++){
+            int start = segmentStart[s], end = segmentStart[s + 1];
+            if(end > start && end - start <= CircuitCompiler.maxClassSlots) circuits[s] = CircuitCompiler.compile(netlist, start, end);
+            if(circuits[s] == null) batches[s] = new GateBatch(netlist, start, end);
+        }
+    }
+
+    /** @return whether at least one segment runs generated code */
+    public boolean compiled(){
+        for(CompiledCircuit circuit : circuits){
+            if(circuit != null) return true;
+        }
+        return false;
+    }
+
+    public void tick(){
+        for(int s = 0; s < circuits.length; s++){
+            if(circuits[s] != null){
+                circuits[s].tick();
+            }else{
+                netlist.emit(segmentStart[s], segmentStart[s + 1]);
+                batches[s].latch();
+            }
+        }
+    }
+}
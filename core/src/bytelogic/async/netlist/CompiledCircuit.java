@@ -0,0 +1,63 @@
+package bytelogic.async.netlist;
+
+/**
+ * Base of classes generated by {@link CircuitCompiler}.
+ * Generated {@link #tick()} works on arrays of {@link LogicNetlist} with every index, port and operation baked in as constant.
+ * Static helpers are small enough to be inlined by JIT.
+ */
+public abstract class CompiledCircuit{
+    protected LogicNetlist netlist;
+    protected int[] last, next, inputs;
+    protected byte[] sides;
+
+    void init(LogicNetlist netlist){
+        this.netlist = netlist;
+        last = netlist.last;
+        next = netlist.next;
+        inputs = netlist.inputs;
+        sides = netlist.sides;
+    }
+
+    /** Same as {@link LogicNetlist#emit(int, int)} and then {@link LogicNetlist#latch(int, int)} for compiled slots. */
+    public abstract void tick();
+
+    public static int add(int left, int right){
+        return (int)Math.min((long)left + right, Integer.MAX_VALUE);
+    }
+
+    public static int sub(int left, int right){
+        return Math.max(left - right, 0);
+    }
+
+    public static int div(int left, int right){
+        return right == 0 ? 0 : left / right;
+    }
+
+    public static int mod(int left, int right){
+        return right == 0 ? 0 : left % right;
+    }
+
+    public static int eq(int left, int right){
+        return left == right ? 1 : 0;
+    }
+
+    public static int gt(int left, int right){
+        return left > right ? 1 : 0;
+    }
+
+    public static int not(int signal){
+        return signal != 0 ? 0 : 1;
+    }
+
+    /** @return router side counter after receiving signal, see {@link LogicNetlist#deliver(int, int, int)} */
+    public static int side(int counter, int signal){
+        return signal != 0 ? 2 : Math.max(0, Math.min(counter - 1, 2));
+    }
+
+    /** @return packed side counters of router after receiving signal through router port */
+    public static byte receive(byte sides, int port, int signal){
+        int shift = (port & 3) << 1;
+        int counter = port >= LogicNetlist.portRouterReset ? 0 : side(sides >> shift & 3, signal);
+        return (byte)(sides & ~(3 << shift) | counter << shift);
+    }
+}
@@ -0,0 +1,172 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Folds gates which depend only on constant sources into constants.
+ * Gate with built-in operation whose every sender is such gate or a source gets the same signals every tick,
+ * once its signal and signals of everything before it reach the fixed point, it keeps it forever.
+ * Such settled gate becomes {@link LogicNetlist#kindConstant} holding its fixed point and loses its incoming edges.
+ * Gates still settling are left as they are, {@link LogicNetlist#foldTicks} tells when they are settled for sure.
+ * Folding is decided while the netlist is compiled, so reconfiguring a source or a folded gate compiles it again.
+ */
+public class ConstantFolding{
+
+    /**
+     * @param source whether slot is a constant source, only {@link LogicNetlist#kindConstant} slots are used
+     * @return netlist with folded gates, or the same netlist if nothing is settled yet
+     */
+    public static LogicNetlist fold(LogicNetlist netlist, boolean[] source){
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget, outPort = netlist.outPort, outGate = netlist.outGate;
+        byte[] kinds = netlist.kinds;
+
+        //gates fed by anything else than plain edges of other candidates drop out, and so does everything after them
+        boolean[] candidate = new boolean[size];
+        for(int i = 0; i < size; i++){
+            candidate[i] = source[i] ? kinds[i] == kindConstant : foldable(netlist, i);
+        }
+        int[] inCount = new int[size];
+        IntSeq queue = new IntSeq();
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                inCount[outTarget[e]]++;
+                if(outGate[e] != -1 || outPort[e] >= portRouter) candidate[outTarget[e]] = false;
+            }
+        }
+        for(int i = 0; i < size; i++){
+            if(!candidate[i]) queue.add(i);
+        }
+        for(int k = 0; k < queue.size; k++){
+            int i = queue.items[k];
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                if(candidate[target]){
+                    candidate[target] = false;
+                    queue.add(target);
+                }
+            }
+        }
+
+        //topological order of candidates, gates on loops or after them are never settled in order and drop out
+        queue.clear();
+        int[] waiting = new int[size];
+        for(int i = 0; i < size; i++){
+            if(!candidate[i]) continue;
+            waiting[i] = inCount[i];
+            if(waiting[i] == 0) queue.add(i);
+        }
+        for(int k = 0; k < queue.size; k++){
+            int i = queue.items[k];
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                if(--waiting[outTarget[e]] == 0) queue.add(outTarget[e]);
+            }
+        }
+
+        //incoming edges of every slot in emit order, so side inputs keep the signal delivered last
+        int[] inStart = new int[size + 1], inEdge = new int[outStart[size]], inFill = new int[size];
+        for(int i = 0; i < size; i++){
+            inStart[i + 1] = inStart[i] + inCount[i];
+        }
+        for(int e = 0; e < outStart[size]; e++){
+            int target = outTarget[e];
+            inEdge[inStart[target] + inFill[target]++] = e;
+        }
+        int[] sender = new int[outStart[size]];
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                sender[e] = i;
+            }
+        }
+
+        int[] value = new int[size], depth = new int[size];
+        boolean[] settled = new boolean[size], folded = new boolean[size];
+        int foldTicks = 0, foldedCount = 0;
+        for(int k = 0; k < queue.size; k++){
+            int i = queue.items[k];
+            boolean ready;
+            if(source[i]){
+                value[i] = netlist.next[i];
+                ready = netlist.last[i] == value[i];
+            }else{
+                int signal = 0, left = 0, right = 0;
+                ready = true;
+                for(int j = inStart[i]; j < inStart[i + 1]; j++){
+                    int e = inEdge[j], from = sender[e];
+                    int port = outPort[e];
+                    if(port == portSignal){
+                        signal |= value[from];
+                    }else if(port == portSide){
+                        left = value[from];
+                    }else{
+                        right = value[from];
+                    }
+                    ready &= settled[from];
+                    depth[i] = Math.max(depth[i], depth[from] + 1);
+                }
+                value[i] = switch(kinds[i]){
+                    case kindUnary -> netlist.unary[i].process(signal);
+                    case kindBinary -> netlist.flipped[i] ? netlist.binary[i].process(right, left) : netlist.binary[i].process(left, right);
+                    default -> signal;
+                };
+                ready &= netlist.last[i] == value[i] && netlist.next[i] == 0 && netlist.inputs[i * 2] == 0 && netlist.inputs[i * 2 + 1] == 0;
+                if(ready){
+                    folded[i] = true;
+                    foldedCount++;
+                }
+            }
+            settled[i] = ready;
+            //signals are one tick late per hop, and gate may still hold one pending signal of its own
+            if(!ready) foldTicks = Math.max(foldTicks, depth[i] + 2);
+        }
+        netlist.foldTicks = foldTicks;
+        if(foldedCount == 0) return netlist;
+
+        int edges = 0;
+        for(int e = 0; e < outStart[size]; e++){
+            if(!folded[outTarget[e]]) edges++;
+        }
+        LogicNetlist result = new LogicNetlist(netlist.builds, edges, netlist.componentStart.length - 1);
+        NodeChains.copyState(netlist, result);
+        result.foldTicks = foldTicks;
+
+        IntSeq slots = new IntSeq(), sources = new IntSeq();
+        int edge = 0;
+        for(int i = 0; i < size; i++){
+            result.outStart[i] = edge;
+            boolean feeds = false;
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                if(folded[outTarget[e]]){
+                    feeds = true;
+                    continue;
+                }
+                result.outTarget[edge] = outTarget[e];
+                result.outPort[edge] = outPort[e];
+                result.outGate[edge] = outGate[e];
+                edge++;
+            }
+            if(folded[i]){
+                result.kinds[i] = kindConstant;
+                result.next[i] = value[i];
+                slots.add(i);
+            }else if(feeds){
+                sources.add(i);
+            }
+        }
+        result.outStart[size] = edge;
+        result.foldedSlots = slots.toArray();
+        result.foldSources = sources.toArray();
+        return result;
+    }
+
+    /** @return whether slot computes its signal from signals of this tick only */
+    static boolean foldable(LogicNetlist netlist, int i){
+        return switch(netlist.kinds[i]){
+            case kindPass -> true;
+            case kindUnary, kindBinary -> netlist.opcodes[i] != null;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package bytelogic.async.netlist;
+
+import java.util.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Ticks components of {@link LogicNetlist} and skips ones whose state repeats with a fixed period.
+ * Without external input component state depends only on its previous state, so once state after tick {@code t + period}
+ * is equal to state after tick {@code t}, states of one period can be replayed forever.
+ * Candidate periods are found by comparing state hashes with checkpoints of doubling distance (Brent's algorithm),
+ * then confirmed by recording one period and comparing its end with its start exactly.
+ * Components with analyzers are never skipped, they read world every tick.
+ */
+public class CycleSkipper{
+    static final byte modeProbe = 0, modeRecord = 1, modeFast = 2, modeIdle = 3;
+
+    public static int maxPeriod = 256;
+    /** Maximum amount of recorded ints per component */
+    public static int maxRecordInts = 1 << 16;
+    public static int minBackoff = 64, maxBackoff = 4096;
+
+    public final LogicNetlist netlist;
+    final int components;
+    final int[] componentOf;
+    final boolean[] external;
+    /** Whether component has tail of collapsed node chain, its queue is published too */
+    final boolean[] chained;
+
+    final byte[] mode;
+    final long[] checkpointHash;
+    final int[] checkpointAge, power;
+    final int[] period, phase;
+    /** Ticks left to wait in {@link #modeIdle} */
+    final int[] idle, backoff;
+    /** States of one period, {@code records[c][k]} is state {@code k} ticks after start of period */
+    final int[][][] records;
+
+    public CycleSkipper(LogicNetlist netlist){
+        this.netlist = netlist;
+        int[] componentStart = netlist.componentStart;
+        components = componentStart.length - 1;
+        componentOf = new int[netlist.size];
+        external = new boolean[components];
+        chained = new boolean[components];
+        mode = new byte[components];
+        checkpointHash = new long[components];
+        checkpointAge = new int[components];
+        power = new int[components];
+        period = new int[components];
+        phase = new int[components];
+        idle = new int[components];
+        backoff = new int[components];
+        records = new int[components][][];
+
+        for(int c = 0; c < components; c++){
+            for(int i = componentStart[c]; i < componentStart[c + 1]; i++){
+                componentOf[i] = c;
+                if(netlist.kinds[i] == kindAnalyzer) external[c] = true;
+            }
+            backoff[c] = minBackoff;
+            restart(c);
+        }
+        for(int tail : netlist.chainTails){
+            chained[componentOf[tail]] = true;
+        }
+    }
+
+    /** Ticks components {@code from..to}. */
+    public void tick(int from, int to){
+        LogicNetlist netlist = this.netlist;
+        int[] componentStart = netlist.componentStart;
+        for(int c = from; c < to; c++){
+            switch(mode[c]){
+                case modeFast -> {
+                    phase[c] = phase[c] + 1 == period[c] ? 0 : phase[c] + 1;
+                    continue;
+                }
+                case modeIdle -> {
+                    if(--idle[c] <= 0) restart(c);
+                }
+            }
+            netlist.emit(componentStart[c], componentStart[c + 1]);
+            netlist.latch(componentStart[c], componentStart[c + 1]);
+            if(!external[c]) observe(c);
+        }
+    }
+
+    public void tick(){
+        tick(0, components);
+    }
+
+    /** @return amount of components being replayed */
+    public int skipped(){
+        int count = 0;
+        for(byte m : mode){
+            if(m == modeFast) count++;
+        }
+        return count;
+    }
+
+    void observe(int c){
+        switch(mode[c]){
+            case modeProbe -> {
+                long hash = hash(c);
+                checkpointAge[c]++;
+                if(hash == checkpointHash[c]){
+                    int candidate = checkpointAge[c];
+                    int[] state = write(c);
+                    if((long)candidate * state.length > maxRecordInts){
+                        sleep(c);
+                        return;
+                    }
+                    period[c] = candidate;
+                    phase[c] = 0;
+                    records[c] = new int[candidate][];
+                    records[c][0] = state;
+                    mode[c] = modeRecord;
+                }else if(checkpointAge[c] == power[c]){
+                    if(power[c] >= maxPeriod){
+                        sleep(c);
+                        return;
+                    }
+                    checkpointHash[c] = hash;
+                    checkpointAge[c] = 0;
+                    power[c] *= 2;
+                }
+            }
+            case modeRecord -> {
+                int k = ++phase[c];
+                if(k < period[c]){
+                    records[c][k] = write(c);
+                }else if(matches(c, records[c][0])){
+                    phase[c] = 0;
+                    backoff[c] = minBackoff;
+                    mode[c] = modeFast;
+                }else{
+                    //hash collision
+                    restart(c);
+                }
+            }
+        }
+    }
+
+    /** Something outside of component changed slot state, recorded period is not valid anymore. Must be called before the change. */
+    public void input(int slot){
+        int c = componentOf[slot];
+        if(mode[c] == modeFast) materialize(c);
+        restart(c);
+    }
+
+    /** Copies replayed state of every skipped component into netlist arrays, components keep being skipped. */
+    public void materialize(){
+        for(int c = 0; c < components; c++){
+            if(mode[c] == modeFast) materialize(c);
+        }
+    }
+
+    /** Copies only signals of skipped components, enough for {@link LogicNetlist#publish()}. */
+    public void materializeSignals(){
+        int[] componentStart = netlist.componentStart;
+        for(int c = 0; c < components; c++){
+            if(mode[c] != modeFast) continue;
+            if(chained[c]){
+                materialize(c);
+                continue;
+            }
+            int from = componentStart[c];
+            //state starts with last of every slot, see LogicNetlist#writeState
+            System.arraycopy(records[c][phase[c]], 0, netlist.last, from, componentStart[c + 1] - from);
+        }
+    }
+
+    /** Materializes everything and starts detection over, e.g. before another ticker takes over. */
+    public void reset(){
+        for(int c = 0; c < components; c++){
+            if(mode[c] == modeFast) materialize(c);
+            restart(c);
+        }
+    }
+
+    void materialize(int c){
+        read(c, records[c][phase[c]]);
+    }
+
+    void restart(int c){
+        mode[c] = modeProbe;
+        records[c] = null;
+        power[c] = 1;
+        checkpointAge[c] = 0;
+        //no state hashes to zero in practice, first probe tick only sets checkpoint
+        checkpointHash[c] = 0;
+    }
+
+    void sleep(int c){
+        restart(c);
+        mode[c] = modeIdle;
+        idle[c] = backoff[c];
+        backoff[c] = Math.min(backoff[c] * 2, maxBackoff);
+    }
+
+    long hash(int c){
+        return netlist.hashState(netlist.componentStart[c], netlist.componentStart[c + 1]);
+    }
+
+    int[] write(int c){
+        return netlist.writeState(netlist.componentStart[c], netlist.componentStart[c + 1]);
+    }
+
+    void read(int c, int[] in){
+        netlist.readState(netlist.componentStart[c], netlist.componentStart[c + 1], in);
+    }
+
+    boolean matches(int c, int[] record){
+        return Arrays.equals(write(c), record);
+    }
+}
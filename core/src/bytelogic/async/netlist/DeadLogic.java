@@ -0,0 +1,93 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Freezes slots whose signals never reach a sink ({@link bytelogic.world.blocks.logic.LogicBlock.LogicBuild#signalSink()}).
+ * Live slots are found by walking edges backwards from sinks, signals of other slots can't change anything players see act.
+ * Dead slot becomes {@link LogicNetlist#kindConstant} holding its last signal and loses its edges, so it costs one copy per tick.
+ * Its pending signal is kept aside in {@link LogicNetlist#deadNext} and written back with the rest of its state,
+ * so dead logic is paused rather than reset and continues once wiring makes it live again.
+ */
+public class DeadLogic{
+
+    /**
+     * @param sink whether slot acts on world or shows its signal on its own
+     * @return netlist with dead slots frozen, or the same netlist if everything is live
+     */
+    public static LogicNetlist eliminate(LogicNetlist netlist, boolean[] sink){
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget;
+
+        int[] inStart = new int[size + 1], inSender = new int[outStart[size]];
+        for(int e = 0; e < outStart[size]; e++){
+            inStart[outTarget[e] + 1]++;
+        }
+        for(int i = 0; i < size; i++){
+            inStart[i + 1] += inStart[i];
+        }
+        int[] inFill = new int[size];
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                inSender[inStart[target] + inFill[target]++] = i;
+            }
+        }
+
+        boolean[] live = new boolean[size];
+        IntSeq queue = new IntSeq();
+        for(int i = 0; i < size; i++){
+            if(sink[i]){
+                live[i] = true;
+                queue.add(i);
+            }
+        }
+        for(int k = 0; k < queue.size; k++){
+            int i = queue.items[k];
+            for(int j = inStart[i]; j < inStart[i + 1]; j++){
+                int sender = inSender[j];
+                if(!live[sender]){
+                    live[sender] = true;
+                    queue.add(sender);
+                }
+            }
+        }
+        if(queue.size == size) return netlist;
+
+        //edges of dead slots lead only to dead slots, edges into them are dropped too
+        int edges = 0;
+        for(int e = 0; e < outStart[size]; e++){
+            if(live[outTarget[e]]) edges++;
+        }
+        LogicNetlist result = new LogicNetlist(netlist.builds, edges, netlist.componentStart.length - 1);
+        NodeChains.copyState(netlist, result);
+
+        IntSeq slots = new IntSeq(), pending = new IntSeq(), analyzers = new IntSeq();
+        int edge = 0;
+        for(int i = 0; i < size; i++){
+            result.outStart[i] = edge;
+            if(!live[i]){
+                slots.add(i);
+                pending.add(result.next[i]);
+                result.kinds[i] = kindConstant;
+                result.next[i] = result.last[i];
+                continue;
+            }
+            if(netlist.kinds[i] == kindAnalyzer) analyzers.add(i);
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                if(!live[outTarget[e]]) continue;
+                result.outTarget[edge] = outTarget[e];
+                result.outPort[edge] = netlist.outPort[e];
+                result.outGate[edge] = netlist.outGate[e];
+                edge++;
+            }
+        }
+        result.outStart[size] = edge;
+        result.deadSlots = slots.toArray();
+        result.deadNext = pending.toArray();
+        result.analyzers = analyzers.toArray();
+        return result;
+    }
+}
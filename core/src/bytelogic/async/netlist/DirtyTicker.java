@@ -0,0 +1,180 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Event-driven alternative to {@link LogicNetlist#tick()}.
+ * A slot is evaluated only if it or one of its senders changed during previous tick, any other slot
+ * would receive the same signals as in previous tick and end up in the same state, so it is skipped.
+ * Routers decide whether to emit in the middle of a tick, so outputs of evaluated routers are evaluated too,
+ * skipped routers reuse decisions from the last time they were evaluated.
+ */
+public class DirtyTicker{
+    public final LogicNetlist netlist;
+    /** Senders of slot {@code i} are {@code inSource[inStart[i]..inStart[i + 1]]} */
+    final int[] inStart, inSource;
+    final boolean[] gated;
+    /** Router emit decisions of the last evaluation */
+    final boolean[] edgeOpen;
+    /** Router side counters at the end of the last evaluation, receiving changes them before latching */
+    final byte[] settledSides;
+
+    final boolean[] dirty;
+    final IntSeq dirtyList = new IntSeq();
+    final Bits feeders;
+    final Bits published;
+    /** Slots changed during previous tick or from outside */
+    final IntSeq seeds = new IntSeq();
+    boolean allDirty = true;
+    /** Amount of slots evaluated during last tick */
+    public int evaluated;
+
+    public DirtyTicker(LogicNetlist netlist){
+        this.netlist = netlist;
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget;
+
+        inStart = new int[size + 1];
+        inSource = new int[outTarget.length];
+        gated = new boolean[size];
+        edgeOpen = new boolean[outTarget.length];
+        settledSides = netlist.sides.clone();
+        dirty = new boolean[size];
+        feeders = new Bits(size);
+        published = new Bits(size);
+
+        for(int e = 0; e < outTarget.length; e++){
+            inStart[outTarget[e] + 1]++;
+        }
+        for(int i = 0; i < size; i++){
+            inStart[i + 1] += inStart[i];
+        }
+        int[] fill = new int[size];
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                inSource[inStart[target] + fill[target]++] = i;
+                if(netlist.outGate[e] != -1) gated[i] = true;
+            }
+        }
+    }
+
+    /** Slot state was changed from outside, e.g. by configuration. */
+    public void seed(int index){
+        seeds.add(index);
+    }
+
+    public void seedAll(){
+        allDirty = true;
+    }
+
+    public void tick(){
+        LogicNetlist netlist = this.netlist;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget, outPort = netlist.outPort, outGate = netlist.outGate;
+        int[] last = netlist.last;
+        byte[] sides = netlist.sides;
+
+        if(allDirty){
+            for(int i = 0; i < netlist.size; i++){
+                mark(i);
+            }
+            allDirty = false;
+        }else{
+            for(int k = 0; k < seeds.size; k++){
+                int slot = seeds.items[k];
+                mark(slot);
+                for(int e = outStart[slot]; e < outStart[slot + 1]; e++){
+                    mark(outTarget[e]);
+                }
+            }
+            //analyzers are sampled every frame
+            for(int slot : netlist.analyzers){
+                mark(slot);
+            }
+        }
+        seeds.clear();
+
+        //dirtyList grows while iterating, so routers after routers are marked too
+        for(int k = 0; k < dirtyList.size; k++){
+            int slot = dirtyList.items[k];
+            if(!gated[slot]) continue;
+            for(int e = outStart[slot]; e < outStart[slot + 1]; e++){
+                mark(outTarget[e]);
+            }
+        }
+
+        for(int k = 0; k < dirtyList.size; k++){
+            int slot = dirtyList.items[k];
+            for(int s = inStart[slot]; s < inStart[slot + 1]; s++){
+                feeders.set(inSource[s]);
+            }
+        }
+
+        //senders must emit in slot order, like in full tick
+        for(int i = feeders.nextSetBit(0); i != -1; i = feeders.nextSetBit(i + 1)){
+            boolean evaluatedSender = dirty[i];
+            int signal = last[i];
+            for(int e = outStart[i], end = outStart[i + 1]; e < end; e++){
+                int gate = outGate[e];
+                boolean open = true;
+                if(gate != -1){
+                    if(evaluatedSender){
+                        open = edgeOpen[e] = side(sides[i], gate) == 0;
+                    }else{
+                        open = edgeOpen[e];
+                    }
+                }
+                int target = outTarget[e];
+                if(open && dirty[target]){
+                    netlist.deliver(target, outPort[e], signal);
+                }
+            }
+        }
+        feeders.clear();
+
+        for(int k = 0; k < dirtyList.size; k++){
+            int slot = dirtyList.items[k];
+            if(latch(slot)){
+                seeds.add(slot);
+                published.set(slot);
+            }
+            dirty[slot] = false;
+        }
+        evaluated = dirtyList.size;
+        dirtyList.clear();
+    }
+
+    /** @return whether state of slot changed */
+    boolean latch(int slot){
+        LogicNetlist netlist = this.netlist;
+        int lastSignal = netlist.last[slot];
+
+        netlist.latch(slot);
+
+        //timer with pending events changes its output later without any input
+        boolean timerChanged = netlist.kinds[slot] == kindTimer && netlist.queues[slot].pending();
+        boolean changed = timerChanged || lastSignal != netlist.last[slot];
+        byte[] sides = netlist.sides, settled = settledSides;
+        if(sides[slot] != settled[slot]){
+            settled[slot] = sides[slot];
+            changed = true;
+        }
+        return changed;
+    }
+
+    void mark(int slot){
+        if(dirty[slot]) return;
+        dirty[slot] = true;
+        dirtyList.add(slot);
+    }
+
+    /** Copies signals changed since previous call to buildings. */
+    public void publish(){
+        for(int i = published.nextSetBit(0); i != -1; i = published.nextSetBit(i + 1)){
+            netlist.publish(i);
+        }
+        published.clear();
+    }
+}
@@ -0,0 +1,215 @@
+package bytelogic.async.netlist;
+
+import arc.util.*;
+
+import java.util.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Removes components whose state stopped changing from full ticks.
+ * Component does not receive anything from outside, so once one tick leaves its state unchanged every further tick does too.
+ * Candidates are found by equal state hashes during {@link #idleTicks} ticks and confirmed by comparing state exactly over one more tick.
+ * Sleeping component is woken by {@link #wake(int)} when configuration changes it, or when one of its analyzers samples another value.
+ * Placing, removing and relinking buildings recompiles netlist, so every component starts awake.
+ * Timers with pending signal changes never sleep.
+ */
+public class DormantTicker{
+    /** Ticks with unchanged state before component is checked and put to sleep */
+    public static int idleTicks = 60;
+
+    public final LogicNetlist netlist;
+    /** Packed components are ticked and compared by it */
+    public final @Nullable BitSliceTicker bits;
+    /** Components are ticked by it if bits are not used, values of uniform nets are a part of state */
+    public final @Nullable RelayNetTicker nets;
+    final int components;
+    final int[] componentOf;
+    /** Analyzer slots of component {@code c} are {@code analyzers[analyzerStart[c]..analyzerStart[c + 1]]} */
+    final int[] analyzerStart, analyzers;
+    final boolean[] asleep;
+    final int[] streak;
+    final long[] hash;
+    /** State copied when {@link #streak} reaches {@link #idleTicks}, compared with state after next tick */
+    final int[][] snapshots;
+    final GateBatch[] batches;
+
+    public DormantTicker(LogicNetlist netlist, @Nullable BitSliceTicker bits, @Nullable RelayNetTicker nets){
+        this.netlist = netlist;
+        this.bits = bits;
+        this.nets = nets;
+        int[] componentStart = netlist.componentStart;
+        components = componentStart.length - 1;
+        componentOf = new int[netlist.size];
+        asleep = new boolean[components];
+        streak = new int[components];
+        hash = new long[components];
+        snapshots = new int[components][];
+        batches = new GateBatch[components];
+        for(int c = 0; c < components; c++){
+            for(int i = componentStart[c]; i < componentStart[c + 1]; i++){
+                componentOf[i] = c;
+            }
+        }
+
+        //analyzers are sorted by slot, so they are grouped by component
+        analyzerStart = new int[components + 1];
+        analyzers = netlist.analyzers;
+        for(int slot : analyzers){
+            analyzerStart[componentOf[slot] + 1]++;
+        }
+        for(int c = 0; c < components; c++){
+            analyzerStart[c + 1] += analyzerStart[c];
+        }
+    }
+
+    /** Ticks awake components {@code from..to}. */
+    public void tick(int from, int to){
+        int[] componentStart = netlist.componentStart;
+        for(int c = from; c < to; c++){
+            if(asleep[c]){
+                if(!sampledChange(c)) continue;
+                asleep[c] = false;
+                streak[c] = 0;
+            }
+
+            if(bits != null){
+                bits.tick(c, c + 1);
+            }else if(nets != null){
+                nets.tick(c);
+            }else{
+                if(batches[c] == null) batches[c] = new GateBatch(netlist, componentStart[c], componentStart[c + 1]);
+                netlist.emit(componentStart[c], componentStart[c + 1]);
+                batches[c].latch();
+            }
+            observe(c);
+        }
+    }
+
+    public void tick(){
+        tick(0, components);
+    }
+
+    /** @return amount of sleeping components */
+    public int sleeping(){
+        int count = 0;
+        for(boolean s : asleep){
+            if(s) count++;
+        }
+        return count;
+    }
+
+    /** Slot is about to be changed from outside, its component must be ticked again. */
+    public void wake(int slot){
+        int c = componentOf[slot];
+        asleep[c] = false;
+        streak[c] = 0;
+        snapshots[c] = null;
+    }
+
+    /** Wakes every component, e.g. before another ticker takes over. */
+    public void reset(){
+        Arrays.fill(asleep, false);
+        Arrays.fill(streak, 0);
+        Arrays.fill(snapshots, null);
+    }
+
+    /** Analyzer latch is {@code last = next}, so in unchanged state they are equal until sampling gives another value. */
+    boolean sampledChange(int c){
+        int[] last = netlist.last, next = netlist.next;
+        for(int k = analyzerStart[c]; k < analyzerStart[c + 1]; k++){
+            int slot = analyzers[k];
+            if(last[slot] != next[slot]) return true;
+        }
+        return false;
+    }
+
+    void observe(int c){
+        int[][] snapshots = this.snapshots;
+        if(snapshots[c] != null){
+            int[] current = write(c);
+            if(Arrays.equals(current, snapshots[c]) && steadyTimers(c)){
+                asleep[c] = true;
+            }else{
+                //hash collision
+                streak[c] = 0;
+            }
+            snapshots[c] = null;
+            return;
+        }
+
+        long current = hash(c);
+        if(current != hash[c]){
+            hash[c] = current;
+            streak[c] = 0;
+        }else if(++streak[c] >= idleTicks){
+            snapshots[c] = write(c);
+        }
+    }
+
+    long hash(int c){
+        LogicNetlist netlist = this.netlist;
+        int from = netlist.componentStart[c], to = netlist.componentStart[c + 1];
+        long hash = 0xcbf29ce484222325L;
+        if(bits != null && bits.sliced[c]){
+            for(int w = bits.wordStart[c]; w < bits.wordStart[c + 1]; w++){
+                hash = mix(hash, bits.last[w]);
+                hash = mix(hash, bits.next[w]);
+                hash = mix(hash, bits.left[w]);
+                hash = mix(hash, bits.right[w]);
+            }
+        }else{
+            for(int i = from; i < to; i++){
+                hash = mix(hash, netlist.last[i]);
+                hash = mix(hash, netlist.next[i]);
+                hash = mix(hash, netlist.inputs[i * 2]);
+                hash = mix(hash, netlist.inputs[i * 2 + 1]);
+                if(netlist.kinds[i] == kindTimer){
+                    hash = netlist.queues[i].hash(hash);
+                }
+            }
+        }
+        for(int i = from; i < to; i++){
+            hash = mix(hash, netlist.sides[i]);
+        }
+        if(nets != null) hash = nets.hash(c, hash);
+        return hash;
+    }
+
+    static long mix(long hash, long value){
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    /** @return exact state of component */
+    int[] write(int c){
+        LogicNetlist netlist = this.netlist;
+        if(bits != null && bits.sliced[c]) bits.materialize(c);
+        if(nets != null) nets.materializeComponent(c);
+        int from = netlist.componentStart[c], to = netlist.componentStart[c + 1], size = to - from;
+        int queued = 0;
+        for(int i = from; i < to; i++){
+            if(netlist.kinds[i] == kindTimer) queued += netlist.queues[i].stateSize();
+        }
+        int[] out = new int[size * 5 + queued];
+        System.arraycopy(netlist.last, from, out, 0, size);
+        System.arraycopy(netlist.next, from, out, size, size);
+        System.arraycopy(netlist.inputs, from * 2, out, size * 2, size * 2);
+        for(int i = 0; i < size; i++){
+            out[size * 4 + i] = netlist.sides[from + i];
+        }
+        int offset = size * 5;
+        for(int i = from; i < to; i++){
+            if(netlist.kinds[i] == kindTimer) offset = netlist.queues[i].write(out, offset);
+        }
+        return out;
+    }
+
+    /** Timer with pending events changes its output later, even if state looks the same for one tick. */
+    boolean steadyTimers(int c){
+        LogicNetlist netlist = this.netlist;
+        for(int i = netlist.componentStart[c], to = netlist.componentStart[c + 1]; i < to; i++){
+            if(netlist.kinds[i] == kindTimer && netlist.queues[i].pending()) return false;
+        }
+        return true;
+    }
+}
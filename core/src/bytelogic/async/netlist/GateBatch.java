@@ -0,0 +1,90 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+import bytelogic.world.blocks.logic.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Latches slots of a range with built-in gates grouped by {@link GateOpcode}, each group is evaluated by one specialized loop.
+ * Latching a slot touches only that slot, so order of slots inside range does not matter.
+ */
+public class GateBatch{
+    public final LogicNetlist netlist;
+    /** Slots latched one by one */
+    final int[] others;
+    /** Gates of opcode {@code o} are {@code gates[start[o]..start[o + 1]]} */
+    final int[] gates;
+    final int[] start;
+
+    public GateBatch(LogicNetlist netlist, int from, int to){
+        this(netlist, range(from, to));
+    }
+
+    /** Latches only given slots. */
+    public GateBatch(LogicNetlist netlist, int[] slots){
+        this.netlist = netlist;
+        GateOpcode[] all = GateOpcode.all;
+        IntSeq others = new IntSeq();
+        int[] counts = new int[all.length + 1];
+        for(int i : slots){
+            GateOpcode opcode = batched(i);
+            if(opcode == null){
+                others.add(i);
+            }else{
+                counts[opcode.ordinal() + 1]++;
+            }
+        }
+        for(int o = 0; o < all.length; o++){
+            counts[o + 1] += counts[o];
+        }
+        start = counts.clone();
+        gates = new int[counts[all.length]];
+        for(int i : slots){
+            GateOpcode opcode = batched(i);
+            if(opcode != null) gates[counts[opcode.ordinal()]++] = i;
+        }
+        this.others = others.toArray();
+    }
+
+    static int[] range(int from, int to){
+        int[] slots = new int[to - from];
+        for(int i = from; i < to; i++){
+            slots[i - from] = i;
+        }
+        return slots;
+    }
+
+    GateOpcode batched(int i){
+        byte kind = netlist.kinds[i];
+        GateOpcode opcode = netlist.opcodes[i];
+        if(opcode == null) return null;
+        if(kind == kindBinary && !opcode.isUnary()) return opcode;
+        if(kind == kindUnary && opcode.isUnary()) return opcode;
+        return null;
+    }
+
+    public void latch(){
+        LogicNetlist netlist = this.netlist;
+        for(int i : others){
+            netlist.latch(i);
+        }
+
+        int[] inputs = netlist.inputs, next = netlist.next, last = netlist.last;
+        GateOpcode[] all = GateOpcode.all;
+        for(int o = 0; o < all.length; o++){
+            int from = start[o], to = start[o + 1];
+            if(from == to) continue;
+            GateOpcode opcode = all[o];
+            if(opcode.isUnary()){
+                opcode.unary(gates, from, to, next, last);
+            }else{
+                opcode.binary(gates, from, to, inputs, netlist.flipped, last);
+            }
+        }
+        for(int i : gates){
+            inputs[i * 2] = inputs[i * 2 + 1] = 0;
+            next[i] = 0;
+        }
+    }
+}
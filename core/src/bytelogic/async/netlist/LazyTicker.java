@@ -0,0 +1,178 @@
+package bytelogic.async.netlist;
+
+import arc.util.*;
+
+import java.util.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Full ticks which evaluate components only when something needs their signals.
+ * Components with a sink ({@link bytelogic.world.blocks.logic.LogicBlock.LogicBuild#signalSink()}) or an analyzer are ticked always.
+ * Other components are skipped and count ticks they owe, until their signal is drawn, inspected, configured or saved.
+ * Component receives nothing from outside, so owed ticks can be done later in a row with the same result;
+ * catching up stops early once state repeats, like in {@link CycleSkipper}.
+ * Component which owes {@link #maxOwedTicks} is caught up right away, so no catch-up costs more than that.
+ * Once its state repeats it only counts owed ticks modulo the period, otherwise laziness doesn't pay off and it is ticked always.
+ * Demanded component is ticked normally during {@link #demandTicks} ticks after its last demand.
+ * Evaluated components are ticked by {@link DormantTicker}, {@link BitSliceTicker} or {@link RelayNetTicker} if given,
+ * and {@link ParallelTicker} may tick ranges of components through it.
+ */
+public class LazyTicker{
+    /** Ticks component keeps being evaluated after its signal was needed */
+    public static int demandTicks = 60;
+    /** Owed ticks after which component is caught up */
+    public static int maxOwedTicks = 600;
+
+    public final LogicNetlist netlist;
+    /** Evaluated components are ticked by the first of them that is present, dormant ticker shares bits and nets with it */
+    public final @Nullable DormantTicker dormant;
+    public final @Nullable BitSliceTicker bits;
+    public final @Nullable RelayNetTicker nets;
+    final int components;
+    final int[] componentOf;
+    /** Whether component is ticked always */
+    final boolean[] eager;
+    /** Ticks left until component becomes lazy again */
+    final int[] demand;
+    /** Ticks component is behind the rest of netlist */
+    final int[] owed;
+    /** Period of component state once it repeated, 0 while unknown */
+    final int[] period;
+    final GateBatch[] batches;
+
+    public LazyTicker(LogicNetlist netlist, @Nullable DormantTicker dormant, @Nullable BitSliceTicker bits, @Nullable RelayNetTicker nets){
+        this.netlist = netlist;
+        this.dormant = dormant;
+        this.bits = bits;
+        this.nets = nets;
+        int[] componentStart = netlist.componentStart;
+        components = componentStart.length - 1;
+        componentOf = new int[netlist.size];
+        eager = new boolean[components];
+        demand = new int[components];
+        owed = new int[components];
+        period = new int[components];
+        batches = new GateBatch[components];
+        for(int c = 0; c < components; c++){
+            for(int i = componentStart[c]; i < componentStart[c + 1]; i++){
+                componentOf[i] = c;
+                if(netlist.kinds[i] == kindAnalyzer || netlist.builds[i].signalSink()) eager[c] = true;
+            }
+        }
+    }
+
+    /** Ticks components {@code from..to} which are evaluated now. */
+    public void tick(int from, int to){
+        for(int c = from; c < to; c++){
+            if(!eager[c]){
+                if(demand[c] <= 0){
+                    owe(c);
+                    continue;
+                }
+                demand[c]--;
+                catchUp(c);
+            }
+            tick(c);
+        }
+    }
+
+    public void tick(){
+        tick(0, components);
+    }
+
+    void owe(int c){
+        if(period[c] > 0){
+            owed[c] = (owed[c] + 1) % period[c];
+        }else if(++owed[c] >= maxOwedTicks){
+            catchUp(c);
+            if(period[c] == 0) eager[c] = true;
+        }
+    }
+
+    void tick(int c){
+        if(dormant != null){
+            dormant.tick(c, c + 1);
+        }else if(bits != null){
+            bits.tick(c, c + 1);
+        }else if(nets != null){
+            nets.tick(c);
+        }else{
+            int[] componentStart = netlist.componentStart;
+            if(batches[c] == null) batches[c] = new GateBatch(netlist, componentStart[c], componentStart[c + 1]);
+            netlist.emit(componentStart[c], componentStart[c + 1]);
+            batches[c].latch();
+        }
+    }
+
+    /** Copies packed bits and uniform nets of component into its slots, so its state can be compared. */
+    void materialize(int c){
+        if(bits != null && bits.sliced[c]) bits.materialize(c);
+        if(nets != null) nets.materializeComponent(c);
+    }
+
+    /** Does owed ticks of component, once state repeats with period {@code p} only the last {@code owed % p} ticks are done. */
+    void catchUp(int c){
+        if(owed[c] == 0) return;
+        LogicNetlist netlist = this.netlist;
+        int from = netlist.componentStart[c], to = netlist.componentStart[c + 1];
+        materialize(c);
+        int[] checkpoint = netlist.writeState(from, to);
+        long checkpointHash = netlist.hashState(from, to);
+        int power = 1, age = 0;
+        boolean periodic = false;
+        while(owed[c] > 0){
+            tick(c);
+            owed[c]--;
+            if(periodic) continue;
+            age++;
+            materialize(c);
+            long hash = netlist.hashState(from, to);
+            if(hash == checkpointHash && Arrays.equals(netlist.writeState(from, to), checkpoint)){
+                owed[c] %= age;
+                period[c] = age;
+                periodic = true;
+            }else if(age == power){
+                checkpoint = netlist.writeState(from, to);
+                checkpointHash = hash;
+                age = 0;
+                power *= 2;
+            }
+        }
+    }
+
+    /** Signal of slot is needed, its component is caught up on next tick and evaluated while demand lasts. */
+    public void demand(int slot){
+        demand[componentOf[slot]] = demandTicks;
+    }
+
+    /** Something outside is about to change slot state, its component has to reach current tick first. */
+    public void input(int slot){
+        int c = componentOf[slot];
+        catchUp(c);
+        period[c] = 0;
+        demand[c] = demandTicks;
+    }
+
+    /** @return amount of components which are not evaluated now */
+    public int lazy(){
+        int count = 0;
+        for(int c = 0; c < components; c++){
+            if(!eager[c] && demand[c] <= 0) count++;
+        }
+        return count;
+    }
+
+    /** Catches every component up, e.g. before saving, it costs at most {@link #maxOwedTicks} per component. */
+    public void catchUp(){
+        for(int c = 0; c < components; c++){
+            catchUp(c);
+        }
+    }
+
+    /** Catches every component up before another ticker takes over. */
+    public void reset(){
+        catchUp();
+        Arrays.fill(demand, 0);
+    }
+}
@@ -0,0 +1,318 @@
+package bytelogic.async.netlist;
+
+import arc.util.*;
+import bytelogic.*;
+import bytelogic.world.blocks.logic.*;
+import bytelogic.world.blocks.logic.AnalyzerBlock.*;
+import bytelogic.world.blocks.logic.BinaryLogicBlock.*;
+import bytelogic.world.blocks.logic.LogicBlock.*;
+import bytelogic.world.blocks.logic.UnaryLogicBlock.*;
+
+import java.util.*;
+
+/**
+ * Logic buildings flattened into primitive arrays.
+ * Slot {@code i} of every array describes {@code builds[i]}.
+ * Slots of every connected component are contiguous and keep the order of {@link bytelogic.gen.BLGroups#byteLogicBuild}.
+ * Buildings stay as views: they get their signals back in {@link #publish()} and their full state in {@link #writeBack()}.
+ */
+public class LogicNetlist{
+    /** {@code last = next; next = 0} */
+    public static final byte kindPass = 0;
+    /** {@code last = next}, next holds configured value */
+    public static final byte kindConstant = 1;
+    /** {@code last = unary(next); next = 0} */
+    public static final byte kindUnary = 2;
+    /** {@code last = binary(left, right); left = right = next = 0} */
+    public static final byte kindBinary = 3;
+    /** {@code last = next}, next is sampled from world in {@link #sample()} */
+    public static final byte kindAnalyzer = 4;
+    /** {@code last = queue.shift(next); next = 0} */
+    public static final byte kindTimer = 5;
+
+    /** Receiver does not accept signal from this sender */
+    public static final int portNone = -1;
+    /** {@code next |= signal} */
+    public static final int portSignal = 0;
+    /** {@code inputs[side] = signal}, side is added to port */
+    public static final int portSide = 1;
+    /** Router side decay + {@code next |= signal}, direction is added to port */
+    public static final int portRouter = 4;
+    /** Same as {@link #portRouter}, but side counter is reset after receiving (node links) */
+    public static final int portRouterReset = 8;
+
+    public final int size;
+    public final LogicBuild[] builds;
+    public final byte[] kinds;
+
+    public final int[] last;
+    public final int[] next;
+    /** Two binary inputs per slot */
+    public final int[] inputs;
+    /** Four router side counters per slot, two bits each, counter of direction {@code d} is {@link #side(byte, int)} */
+    public final byte[] sides;
+    public final boolean[] flipped;
+
+    public final UnaryProcessor[] unary;
+    public final BinaryProcessor[] binary;
+    /** Operation of built-in gates, {@code null} for custom processors */
+    public final GateOpcode[] opcodes;
+
+    /** Delay lines of timer slots, shared with their buildings */
+    public final SignalQueue[] queues;
+
+    /** Edges of slot {@code i} are {@code outStart[i]..outStart[i + 1]} */
+    public final int[] outStart;
+    public final int[] outTarget;
+    public final int[] outPort;
+    /** Side counter of sender which must be zero to emit, {@code -1} if edge is always active */
+    public final int[] outGate;
+
+    /** Slots of component {@code c} are {@code componentStart[c]..componentStart[c + 1]}, components never send signals to each other */
+    public final int[] componentStart;
+    /** Slots of {@link #kindAnalyzer} */
+    public int[] analyzers = {};
+    /**
+     * Node chains collapsed by {@link NodeChains}: chain {@code k} ends with timer slot {@code chainTails[k]},
+     * its other nodes are {@code chainSlots[chainStart[k]..chainStart[k + 1]]} from head to tail
+     */
+    public int[] chainTails = {}, chainStart = {0}, chainSlots = {};
+    /** Gates turned into constants by {@link ConstantFolding} and sources sending to them, both sorted */
+    public int[] foldedSlots = {}, foldSources = {};
+    /** Ticks after which gates {@link ConstantFolding} left because they were still settling can be folded, {@code 0} if there are none */
+    public int foldTicks;
+    /** Slots frozen by {@link DeadLogic}, sorted, and pending signals they had */
+    public int[] deadSlots = {}, deadNext = {};
+    /** Gates of whole netlist grouped by operation, created on first full tick */
+    private @Nullable GateBatch batch;
+
+    LogicNetlist(LogicBuild[] builds, int edges, int components){
+        this.size = builds.length;
+        this.builds = builds;
+        kinds = new byte[size];
+        last = new int[size];
+        next = new int[size];
+        inputs = new int[size * 2];
+        sides = new byte[size];
+        flipped = new boolean[size];
+        unary = new UnaryProcessor[size];
+        binary = new BinaryProcessor[size];
+        opcodes = new GateOpcode[size];
+        queues = new SignalQueue[size];
+        outStart = new int[size + 1];
+        outTarget = new int[edges];
+        outPort = new int[edges];
+        outGate = new int[edges];
+        componentStart = new int[components + 1];
+    }
+
+    /** Same as calling {@code beforeUpdateSignalState} and then {@code updateSignalState} for every building. */
+    public void tick(){
+        emit(0, size);
+        if(batch == null) batch = new GateBatch(this, 0, size);
+        batch.latch();
+    }
+
+    public void emit(int from, int to){
+        for(int i = from; i < to; i++){
+            emit(i);
+        }
+    }
+
+    public void emit(int i){
+        int[] outTarget = this.outTarget, outPort = this.outPort, outGate = this.outGate;
+        int signal = last[i];
+        for(int e = outStart[i], end = outStart[i + 1]; e < end; e++){
+            int gate = outGate[e];
+            if(gate != -1 && side(sides[i], gate) != 0) continue;
+            deliver(outTarget[e], outPort[e], signal);
+        }
+    }
+
+    public void deliver(int target, int port, int signal){
+        if(port == portSignal){
+            next[target] |= signal;
+        }else if(port < portRouter){
+            inputs[target * 2 + port - portSide] = signal;
+        }else{
+            sides[target] = CompiledCircuit.receive(sides[target], port, signal);
+            next[target] |= signal;
+        }
+    }
+
+    /** @return counter of direction {@code dir} in packed side counters of slot */
+    public static int side(byte sides, int dir){
+        return sides >> (dir << 1) & 3;
+    }
+
+    public void latch(int from, int to){
+        for(int i = from; i < to; i++){
+            latch(i);
+        }
+    }
+
+    public void latch(int i){
+        switch(kinds[i]){
+            case kindPass -> {
+                last[i] = next[i];
+                next[i] = 0;
+            }
+            case kindConstant -> last[i] = next[i];
+            case kindUnary -> {
+                last[i] = unary[i].process(next[i]);
+                next[i] = 0;
+            }
+            case kindBinary -> {
+                int left = inputs[i * 2], right = inputs[i * 2 + 1];
+                last[i] = flipped[i] ? binary[i].process(right, left) : binary[i].process(left, right);
+                inputs[i * 2] = inputs[i * 2 + 1] = 0;
+                next[i] = 0;
+            }
+            case kindAnalyzer -> last[i] = next[i];
+            case kindTimer -> {
+                last[i] = queues[i].shift(next[i]);
+                next[i] = 0;
+            }
+        }
+    }
+
+    /** @return hash of state of slots {@code from..to}, equal states have equal hashes */
+    public long hashState(int from, int to){
+        long hash = 0xcbf29ce484222325L;
+        for(int i = from; i < to; i++){
+            hash = mix(hash, last[i]);
+            hash = mix(hash, next[i]);
+            hash = mix(hash, inputs[i * 2]);
+            hash = mix(hash, inputs[i * 2 + 1]);
+            hash = mix(hash, sides[i]);
+            if(kinds[i] == kindTimer){
+                hash = queues[i].hash(hash);
+            }
+        }
+        return hash;
+    }
+
+    static long mix(long hash, int value){
+        return (hash ^ value) * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * @return exact state of slots {@code from..to}, read back by {@link #readState(int, int, int[])}.
+     * Layout: {@code last} of every slot first, so signals can be copied at once,
+     * then next, inputs and sides of every slot, then timer queues.
+     */
+    public int[] writeState(int from, int to){
+        int size = to - from;
+        int queued = 0;
+        for(int i = from; i < to; i++){
+            if(kinds[i] == kindTimer) queued += queues[i].stateSize();
+        }
+        int[] out = new int[size * 5 + queued];
+        System.arraycopy(last, from, out, 0, size);
+        System.arraycopy(next, from, out, size, size);
+        System.arraycopy(inputs, from * 2, out, size * 2, size * 2);
+        for(int i = 0; i < size; i++){
+            out[size * 4 + i] = sides[from + i];
+        }
+        int offset = size * 5;
+        for(int i = from; i < to; i++){
+            if(kinds[i] == kindTimer) offset = queues[i].write(out, offset);
+        }
+        return out;
+    }
+
+    public void readState(int from, int to, int[] in){
+        int size = to - from;
+        System.arraycopy(in, 0, last, from, size);
+        System.arraycopy(in, size, next, from, size);
+        System.arraycopy(in, size * 2, inputs, from * 2, size * 2);
+        for(int i = 0; i < size; i++){
+            sides[from + i] = (byte)in[size * 4 + i];
+        }
+        int offset = size * 5;
+        for(int i = from; i < to; i++){
+            if(kinds[i] == kindTimer) offset = queues[i].read(in, offset);
+        }
+    }
+
+    /**
+     * Reads world state used by ticks, must be called from main thread.
+     * World does not change between ticks of one frame, so sampling once per frame gives the same result.
+     */
+    public void sample(){
+        BLVars.stateUpdater.powerSampler.begin();
+        for(int i : analyzers){
+            next[i] = ((AnaylzerBuild)builds[i]).sampleSignal();
+        }
+    }
+
+    /** Copies visible signals to buildings. */
+    public void publish(){
+        for(int i = 0; i < size; i++){
+            publish(i);
+        }
+        publishChains();
+    }
+
+    public void publish(int i){
+        builds[i].lastSignal = last[i];
+    }
+
+    /** Copies signals of collapsed chain nodes from queues of their tails, their own slots stay zero. */
+    public void publishChains(){
+        for(int k = 0; k < chainTails.length; k++){
+            SignalQueue queue = queues[chainTails[k]];
+            int from = chainStart[k], to = chainStart[k + 1];
+            for(int j = from; j < to; j++){
+                //node j hops after chain head holds signal which reaches tail later
+                int hop = j - from + 1;
+                builds[chainSlots[j]].lastSignal = queue.at(queue.delay() - hop);
+            }
+        }
+    }
+
+    /** @return whether slot is folded or feeds folded slots, so changing its configuration needs compiling again */
+    public boolean folds(int i){
+        return Arrays.binarySearch(foldedSlots, i) >= 0 || Arrays.binarySearch(foldSources, i) >= 0;
+    }
+
+    /** @return whether slot is frozen by {@link DeadLogic} */
+    public boolean dead(int i){
+        return Arrays.binarySearch(deadSlots, i) >= 0;
+    }
+
+    /** Copies configuration of building into its slot, dead slot keeps its frozen signal and gets configuration as pending state. */
+    public void reload(int i){
+        int dead = Arrays.binarySearch(deadSlots, i);
+        if(dead < 0){
+            builds[i].reloadNetlist(this, i);
+            return;
+        }
+        int held = next[i];
+        next[i] = deadNext[dead];
+        builds[i].reloadNetlist(this, i);
+        deadNext[dead] = next[i];
+        next[i] = held;
+    }
+
+    /** Copies full state to buildings, e.g. before saving or recompiling. */
+    public void writeBack(){
+        //folded and dead slots hold their signal in next only to stay constant, buildings get their real pending signals
+        for(int i : foldedSlots){
+            next[i] = 0;
+        }
+        for(int k = 0; k < deadSlots.length; k++){
+            next[deadSlots[k]] = deadNext[k];
+        }
+        for(int i = 0; i < size; i++){
+            builds[i].readNetlist(this, i);
+        }
+        for(int i : foldedSlots){
+            next[i] = last[i];
+        }
+        for(int i : deadSlots){
+            next[i] = last[i];
+        }
+        publishChains();
+    }
+}
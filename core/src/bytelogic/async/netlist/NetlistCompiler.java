@@ -0,0 +1,165 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+import bytelogic.gen.*;
+import bytelogic.world.blocks.logic.LogicBlock.*;
+import bytelogic.world.blocks.logic.NodeLogicBlock.*;
+import bytelogic.world.blocks.logic.SignalBlock.*;
+import mindustry.gen.*;
+
+import static bytelogic.async.netlist.LogicNetlist.portNone;
+
+/**
+ * Builds {@link LogicNetlist} from placed logic buildings.
+ * Every building describes its outputs in {@link LogicBuild#compileOutputs(OutputCollector)},
+ * receivers choose input port in {@link LogicBuild#inputPort(Building)}.
+ */
+public class NetlistCompiler implements OutputCollector{
+    private final Seq<LogicBuild> builds = new Seq<>();
+    private final IntSeq targets = new IntSeq(), ports = new IntSeq(), gates = new IntSeq();
+    private LogicBuild current;
+    /** Whether pass-through node chains are collapsed, see {@link NodeChains} */
+    public boolean collapseChains;
+    /** Whether gates fed only by signal blocks are folded into constants, see {@link ConstantFolding} */
+    public boolean foldConstants;
+    /** Whether slots which can't reach a sink are frozen, see {@link DeadLogic} */
+    public boolean skipDeadLogic;
+
+    public LogicNetlist compile(){
+        builds.clear();
+        targets.clear();
+        ports.clear();
+        gates.clear();
+
+        for(ByteLogicBuildingc build : BLGroups.byteLogicBuild){
+            LogicBuild logicBuild = build.as();
+            logicBuild.netlistIndex = builds.size;
+            builds.add(logicBuild);
+        }
+
+        int size = builds.size;
+        int[] outStart = new int[size + 1];
+        for(int i = 0; i < size; i++){
+            outStart[i] = targets.size;
+            current = builds.get(i);
+            current.compileOutputs(this);
+        }
+        outStart[size] = targets.size;
+        current = null;
+
+        //slots of every connected component are made contiguous, order inside component is kept
+        int[] component = components(outStart);
+        int componentCount = 0;
+        for(int i = 0; i < size; i++){
+            componentCount = Math.max(componentCount, component[i] + 1);
+        }
+        int[] componentStart = new int[componentCount + 1];
+        for(int i = 0; i < size; i++){
+            componentStart[component[i] + 1]++;
+        }
+        for(int c = 0; c < componentCount; c++){
+            componentStart[c + 1] += componentStart[c];
+        }
+        int[] slot = new int[size], order = new int[size];
+        int[] fill = new int[componentCount];
+        LogicBuild[] ordered = new LogicBuild[size];
+        for(int i = 0; i < size; i++){
+            int c = component[i];
+            int j = componentStart[c] + fill[c]++;
+            slot[i] = j;
+            order[j] = i;
+            ordered[j] = builds.get(i);
+            ordered[j].netlistIndex = j;
+        }
+
+        LogicNetlist netlist = new LogicNetlist(ordered, targets.size, componentCount);
+        System.arraycopy(componentStart, 0, netlist.componentStart, 0, componentStart.length);
+        int edge = 0;
+        for(int j = 0; j < size; j++){
+            int i = order[j];
+            netlist.outStart[j] = edge;
+            for(int e = outStart[i]; e < outStart[i + 1]; e++, edge++){
+                netlist.outTarget[edge] = slot[targets.items[e]];
+                netlist.outPort[edge] = ports.items[e];
+                netlist.outGate[edge] = gates.items[e];
+            }
+        }
+        netlist.outStart[size] = edge;
+
+        IntSeq analyzers = new IntSeq();
+        for(int i = 0; i < netlist.size; i++){
+            netlist.builds[i].writeNetlist(netlist, i);
+            if(netlist.kinds[i] == LogicNetlist.kindAnalyzer) analyzers.add(i);
+        }
+        netlist.analyzers = analyzers.toArray();
+        builds.clear();
+
+        if(skipDeadLogic){
+            boolean[] sink = new boolean[netlist.size];
+            for(int i = 0; i < netlist.size; i++){
+                sink[i] = netlist.builds[i].signalSink();
+            }
+            netlist = DeadLogic.eliminate(netlist, sink);
+        }
+        if(foldConstants){
+            boolean[] source = new boolean[netlist.size];
+            for(int i = 0; i < netlist.size; i++){
+                source[i] = netlist.builds[i] instanceof SignalLogicBuild;
+            }
+            netlist = ConstantFolding.fold(netlist, source);
+        }
+        if(collapseChains){
+            boolean[] node = new boolean[netlist.size];
+            for(int i = 0; i < netlist.size; i++){
+                node[i] = netlist.builds[i] instanceof NodeLogicBuild;
+            }
+            netlist = NodeChains.collapse(netlist, node);
+        }
+        return netlist;
+    }
+
+    /** @return component id of every slot, ids are numbered in order of their first slot */
+    private int[] components(int[] outStart){
+        int size = outStart.length - 1;
+        int[] parent = new int[size];
+        for(int i = 0; i < size; i++){
+            parent[i] = i;
+        }
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int a = find(parent, i), b = find(parent, targets.items[e]);
+                if(a != b) parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        //roots are the smallest slots of their components
+        int[] component = new int[size];
+        int count = 0;
+        for(int i = 0; i < size; i++){
+            int root = find(parent, i);
+            component[i] = root == i ? count++ : component[root];
+        }
+        return component;
+    }
+
+    private static int find(int[] parent, int i){
+        while(parent[i] != i){
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    @Override
+    public void output(Building target, int gate){
+        LogicBuild receiver = target.as();
+        int index = receiver.netlistIndex;
+        if(index < 0 || index >= builds.size || builds.get(index) != receiver) return;
+
+        int port = receiver.inputPort(current);
+        if(port == portNone) return;
+
+        targets.add(index);
+        ports.add(port);
+        gates.add(gate);
+    }
+}
@@ -0,0 +1,128 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Collapses chains of linked nodes which only pass signal further.
+ * Such node has one sender, which reaches it through a node link, and one output, its own link, so it is a register delaying signal by one tick.
+ * Chain of {@code k} nodes becomes its last node turned into a timer with queue of length {@code k}:
+ * signal of chain head goes straight into it and leaves it {@code k - 1} ticks later, like it did hop by hop.
+ * Other nodes of chain lose their edges, their signals are read from the queue in {@link LogicNetlist#publishChains()}.
+ * Zero-delay combinational ticks have no per-hop latency, so chains are not collapsed for them.
+ */
+public class NodeChains{
+
+    /**
+     * @param node whether slot is a node, only pass slots are collapsed
+     * @return netlist with collapsed chains, or the same netlist if it has none
+     */
+    public static LogicNetlist collapse(LogicNetlist netlist, boolean[] node){
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget, outPort = netlist.outPort, outGate = netlist.outGate;
+
+        int[] inCount = new int[size], inPort = new int[size];
+        for(int e = 0; e < outStart[size]; e++){
+            inCount[outTarget[e]]++;
+            inPort[outTarget[e]] = outPort[e];
+        }
+        boolean[] passing = new boolean[size];
+        for(int i = 0; i < size; i++){
+            passing[i] = node[i] && netlist.kinds[i] == kindPass && inCount[i] == 1 && inPort[i] >= portRouterReset
+            && outStart[i + 1] - outStart[i] == 1 && outGate[outStart[i]] == -1 && outTarget[outStart[i]] != i;
+        }
+
+        //chain starts at passing node whose sender does not pass, so loops made only of nodes are kept
+        int[] sender = new int[size];
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                sender[outTarget[e]] = i;
+            }
+        }
+        IntSeq tails = new IntSeq(), starts = new IntSeq(), slots = new IntSeq();
+        int[] tailOf = new int[size];
+        boolean[] detached = new boolean[size];
+        starts.add(0);
+        for(int i = 0; i < size; i++){
+            if(!passing[i] || passing[sender[i]]) continue;
+            int start = slots.size, tail = i;
+            while(passing[outTarget[outStart[tail]]]){
+                slots.add(tail);
+                tail = outTarget[outStart[tail]];
+            }
+            if(slots.size == start){
+                tailOf[i] = -1;
+                continue;
+            }
+            for(int k = start; k < slots.size; k++){
+                detached[slots.items[k]] = true;
+            }
+            tailOf[i] = tail;
+            tails.add(tail);
+            starts.add(slots.size);
+        }
+        if(tails.isEmpty()) return netlist;
+
+        int edges = 0;
+        for(int i = 0; i < size; i++){
+            if(!detached[i]) edges += outStart[i + 1] - outStart[i];
+        }
+        LogicNetlist result = new LogicNetlist(netlist.builds, edges, netlist.componentStart.length - 1);
+        copyState(netlist, result);
+
+        int edge = 0;
+        for(int i = 0; i < size; i++){
+            result.outStart[i] = edge;
+            if(detached[i]) continue;
+            for(int e = outStart[i]; e < outStart[i + 1]; e++, edge++){
+                int target = outTarget[e];
+                //head sends straight into tail, through the port tail used to receive from its sender
+                boolean head = detached[target] && !detached[sender[target]];
+                result.outTarget[edge] = head ? tailOf[target] : target;
+                result.outPort[edge] = head ? inPort[tailOf[target]] : outPort[e];
+                result.outGate[edge] = outGate[e];
+            }
+        }
+        result.outStart[size] = edge;
+
+        result.chainTails = tails.toArray();
+        result.chainStart = starts.toArray();
+        result.chainSlots = slots.toArray();
+        for(int k = 0; k < tails.size; k++){
+            int tail = tails.items[k], from = starts.items[k], length = starts.items[k + 1] - from + 1;
+            //window[d] holds signal of node d hops before tail, window[0] is signal of tail
+            int[] queue = new int[length];
+            queue[0] = result.last[tail];
+            for(int d = 1; d < length; d++){
+                int slot = slots.items[from + length - 1 - d];
+                queue[d] = result.last[slot];
+                result.last[slot] = result.next[slot] = 0;
+            }
+            result.kinds[tail] = kindTimer;
+            result.queues[tail] = SignalQueue.window(queue);
+        }
+        return result;
+    }
+
+    static void copyState(LogicNetlist from, LogicNetlist to){
+        int size = from.size;
+        System.arraycopy(from.kinds, 0, to.kinds, 0, size);
+        System.arraycopy(from.last, 0, to.last, 0, size);
+        System.arraycopy(from.next, 0, to.next, 0, size);
+        System.arraycopy(from.inputs, 0, to.inputs, 0, size * 2);
+        System.arraycopy(from.sides, 0, to.sides, 0, size);
+        System.arraycopy(from.flipped, 0, to.flipped, 0, size);
+        System.arraycopy(from.unary, 0, to.unary, 0, size);
+        System.arraycopy(from.binary, 0, to.binary, 0, size);
+        System.arraycopy(from.opcodes, 0, to.opcodes, 0, size);
+        System.arraycopy(from.queues, 0, to.queues, 0, size);
+        System.arraycopy(from.componentStart, 0, to.componentStart, 0, from.componentStart.length);
+        to.analyzers = from.analyzers;
+        to.foldedSlots = from.foldedSlots;
+        to.foldSources = from.foldSources;
+        to.foldTicks = from.foldTicks;
+        to.deadSlots = from.deadSlots;
+        to.deadNext = from.deadNext;
+    }
+}
@@ -0,0 +1,18 @@
+package bytelogic.async.netlist;
+
+import bytelogic.world.blocks.logic.LogicBlock.*;
+import mindustry.gen.*;
+
+/** Receives outputs described by {@link LogicBuild#compileOutputs(OutputCollector)}. */
+public interface OutputCollector{
+    /** Adds output of the building being compiled. */
+    default void output(Building target){
+        output(target, -1);
+    }
+
+    /**
+     * Adds output of the building being compiled.
+     * @param gate side counter of sender which must be zero for signal to pass, -1 if output is always active
+     */
+    void output(Building target, int gate);
+}
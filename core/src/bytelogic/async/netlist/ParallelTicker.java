@@ -0,0 +1,104 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+import arc.util.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs {@link LogicNetlist#tick()} for independent components on several threads.
+ * Components do not share slots or edges and keep their serial order inside, so result does not depend on thread count.
+ * Small neighbour components are packed into one task.
+ * If {@link CycleSkipper}, {@link LazyTicker}, {@link DormantTicker}, {@link BitSliceTicker} or {@link RelayNetTicker} is given, it ticks components of tasks,
+ * otherwise tasks may run classes generated by {@link CircuitCompiler}.
+ */
+public class ParallelTicker{
+    /** Minimum amount of slots in one task */
+    public static int minTaskSlots = 512;
+
+    public final LogicNetlist netlist;
+    public final @Nullable CycleSkipper skipper;
+    public final @Nullable LazyTicker lazy;
+    public final @Nullable DormantTicker dormant;
+    public final @Nullable BitSliceTicker bits;
+    public final @Nullable RelayNetTicker nets;
+    /** Components of task {@code t} are {@code taskStart[t]..taskStart[t + 1]} */
+    final int[] taskStart;
+    final ComponentTask[] tasks;
+
+    public ParallelTicker(LogicNetlist netlist, @Nullable CycleSkipper skipper, @Nullable LazyTicker lazy, @Nullable DormantTicker dormant, @Nullable BitSliceTicker bits, @Nullable RelayNetTicker nets, int threads, boolean bytecode){
+        this.netlist = netlist;
+        this.skipper = skipper;
+        this.lazy = lazy;
+        this.dormant = dormant;
+        this.bits = bits;
+        this.nets = nets;
+        int[] componentStart = netlist.componentStart;
+        int target = Math.max(minTaskSlots, netlist.size / Math.max(threads * 4, 1));
+
+        IntSeq starts = new IntSeq();
+        starts.add(0);
+        for(int c = 1; c < componentStart.length; c++){
+            if(componentStart[c] - componentStart[starts.peek()] >= target || c == componentStart.length - 1){
+                starts.add(c);
+            }
+        }
+        taskStart = starts.toArray();
+        tasks = new ComponentTask[taskStart.length - 1];
+        for(int t = 0; t < tasks.length; t++){
+            tasks[t] = new ComponentTask(taskStart[t], taskStart[t + 1], bytecode && skipper == null && lazy == null && dormant == null && bits == null && nets == null);
+        }
+    }
+
+    /** @return false if there is nothing to split and serial tick should be used */
+    public boolean parallel(){
+        return tasks.length > 1;
+    }
+
+    public void tick(ForkJoinPool pool){
+        pool.invoke(new TickAll());
+    }
+
+    class TickAll extends RecursiveAction{
+        @Override
+        protected void compute(){
+            for(ComponentTask task : tasks){
+                task.reinitialize();
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    class ComponentTask extends RecursiveAction{
+        final int from, to;
+        final @Nullable GateBatch batch;
+        final @Nullable CircuitTicker circuits;
+
+        ComponentTask(int from, int to, boolean bytecode){
+            this.from = from;
+            this.to = to;
+            circuits = bytecode ? new CircuitTicker(netlist, from, to) : null;
+            batch = circuits == null ? new GateBatch(netlist, netlist.componentStart[from], netlist.componentStart[to]) : null;
+        }
+
+        @Override
+        protected void compute(){
+            if(skipper != null){
+                skipper.tick(from, to);
+            }else if(lazy != null){
+                lazy.tick(from, to);
+            }else if(dormant != null){
+                dormant.tick(from, to);
+            }else if(bits != null){
+                bits.tick(from, to);
+            }else if(nets != null){
+                nets.tick(from, to);
+            }else if(circuits != null){
+                circuits.tick();
+            }else{
+                netlist.emit(netlist.componentStart[from], netlist.componentStart[to]);
+                batch.latch();
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+import bytelogic.world.blocks.logic.RelayBlock.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Full ticks which handle connected relays as nets instead of single slots.
+ * Neighbour relays always send to each other, so relays of a net form an undirected grid graph, which is bipartite.
+ * Relay gets OR of its neighbours, so once every relay of one color holds the same value, next tick every relay of other color holds it,
+ * as long as signals coming from outside of the net add nothing new. Such uniform net keeps one value per color and swaps them every tick,
+ * only edges leaving the net are emitted and only relays receiving from outside are checked.
+ * Net receiving something new goes back to relay by relay ticks and is checked for uniform state again after {@link #retryTicks}.
+ * Nets are found with union-find over netlist edges together with the netlist, so any placement or removal finds them again,
+ * it is one pass over edges next to compiling the netlist itself.
+ * Net never leaves its component, so components are ticked one by one and {@link ParallelTicker} or {@link DormantTicker} may tick some of them.
+ */
+public class RelayNetTicker{
+    /** Ticks between attempts to make net uniform */
+    public static int retryTicks = 16;
+
+    public final LogicNetlist netlist;
+    /** Net of slot, {@code -1} for slots outside of nets */
+    final int[] netOf;
+    /** Color of relay in checkerboard of its net */
+    final byte[] color;
+    /** Members of net {@code n} are {@code members[memberStart[n]..memberStart[n + 1]]} */
+    final int[] memberStart, members;
+    /** Members receiving signals from outside of net, grouped the same way */
+    final int[] inputStart, inputs;
+    /** Whether member sends signals outside of net */
+    final boolean[] boundary;
+    final boolean[] uniform;
+    /** Values of both colors of uniform net */
+    final int[] values;
+    final int[] retry;
+    final int components;
+    /** Nets of component {@code c} are {@code netStart[c]..netStart[c + 1]} */
+    final int[] netStart;
+    /** Slots of component outside of nets, created on first tick of component */
+    final GateBatch[] batches;
+
+    public RelayNetTicker(LogicNetlist netlist){
+        this(netlist, relays(netlist));
+    }
+
+    public RelayNetTicker(LogicNetlist netlist, boolean[] relay){
+        this.netlist = netlist;
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget;
+
+        //relays joined by edges in both directions form nets
+        int[] parent = new int[size];
+        for(int i = 0; i < size; i++){
+            parent[i] = i;
+        }
+        for(int i = 0; i < size; i++){
+            if(!member(i, relay)) continue;
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                if(!member(target, relay) || !plain(e) || !sends(target, i)) continue;
+                int a = find(parent, i), b = find(parent, target);
+                if(a != b) parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+
+        int[] rootNet = new int[size];
+        int[] count = new int[size + 1];
+        int nets = 0;
+        for(int i = 0; i < size; i++){
+            rootNet[i] = -1;
+        }
+        for(int i = 0; i < size; i++){
+            count[find(parent, i)]++;
+        }
+        netOf = new int[size];
+        for(int i = 0; i < size; i++){
+            int root = find(parent, i);
+            if(count[root] < 2){
+                netOf[i] = -1;
+                continue;
+            }
+            if(rootNet[root] == -1) rootNet[root] = nets++;
+            netOf[i] = rootNet[root];
+        }
+
+        color = new byte[size];
+        boolean[] valid = colorNets(nets);
+        int[] validNet = new int[nets];
+        int validNets = 0;
+        for(int n = 0; n < nets; n++){
+            validNet[n] = valid[n] ? validNets++ : -1;
+        }
+        for(int i = 0; i < size; i++){
+            if(netOf[i] != -1) netOf[i] = validNet[netOf[i]];
+        }
+        nets = validNets;
+
+        memberStart = new int[nets + 1];
+        inputStart = new int[nets + 1];
+        boundary = new boolean[size];
+        boolean[] receives = new boolean[size];
+        for(int i = 0; i < size; i++){
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                if(netOf[target] != -1 && netOf[target] != netOf[i]) receives[target] = true;
+                if(netOf[i] != -1 && netOf[target] != netOf[i]) boundary[i] = true;
+            }
+        }
+        for(int i = 0; i < size; i++){
+            if(netOf[i] == -1) continue;
+            memberStart[netOf[i] + 1]++;
+            if(receives[i]) inputStart[netOf[i] + 1]++;
+        }
+        for(int n = 0; n < nets; n++){
+            memberStart[n + 1] += memberStart[n];
+            inputStart[n + 1] += inputStart[n];
+        }
+        members = new int[memberStart[nets]];
+        inputs = new int[inputStart[nets]];
+        int[] memberFill = new int[nets], inputFill = new int[nets];
+        for(int i = 0; i < size; i++){
+            int n = netOf[i];
+            if(n == -1) continue;
+            members[memberStart[n] + memberFill[n]++] = i;
+            if(receives[i]) inputs[inputStart[n] + inputFill[n]++] = i;
+        }
+
+        uniform = new boolean[nets];
+        values = new int[nets * 2];
+        retry = new int[nets];
+
+        //nets are numbered in order of their first slot, so they are grouped by component
+        int[] componentStart = netlist.componentStart;
+        components = componentStart.length - 1;
+        netStart = new int[components + 1];
+        batches = new GateBatch[components];
+        for(int c = 0, n = 0; c < components; c++){
+            while(n < nets && members[memberStart[n]] < componentStart[c + 1]) n++;
+            netStart[c + 1] = n;
+        }
+    }
+
+    static boolean[] relays(LogicNetlist netlist){
+        boolean[] relay = new boolean[netlist.size];
+        for(int i = 0; i < netlist.size; i++){
+            relay[i] = netlist.builds[i] instanceof RelayBuild;
+        }
+        return relay;
+    }
+
+    boolean member(int i, boolean[] relay){
+        return relay[i] && netlist.kinds[i] == kindPass;
+    }
+
+    /** @return whether edge always adds signal to next of its target */
+    boolean plain(int e){
+        return netlist.outGate[e] == -1 && netlist.outPort[e] == portSignal;
+    }
+
+    boolean sends(int from, int to){
+        for(int e = netlist.outStart[from]; e < netlist.outStart[from + 1]; e++){
+            if(netlist.outTarget[e] == to && plain(e)) return true;
+        }
+        return false;
+    }
+
+    /** Colors every net in two colors, @return whether net is bipartite and all its edges go both ways */
+    boolean[] colorNets(int nets){
+        LogicNetlist netlist = this.netlist;
+        boolean[] valid = new boolean[nets], seen = new boolean[netlist.size];
+        for(int n = 0; n < nets; n++){
+            valid[n] = true;
+        }
+        IntSeq queue = new IntSeq();
+        for(int start = 0; start < netlist.size; start++){
+            if(netOf[start] == -1 || seen[start]) continue;
+            seen[start] = true;
+            queue.clear();
+            queue.add(start);
+            for(int k = 0; k < queue.size; k++){
+                int i = queue.items[k];
+                for(int e = netlist.outStart[i]; e < netlist.outStart[i + 1]; e++){
+                    int target = netlist.outTarget[e];
+                    if(netOf[target] != netOf[i]) continue;
+                    if(!plain(e) || !sends(target, i)){
+                        valid[netOf[i]] = false;
+                    }else if(!seen[target]){
+                        seen[target] = true;
+                        color[target] = (byte)(1 - color[i]);
+                        queue.add(target);
+                    }else if(color[target] == color[i]){
+                        valid[netOf[i]] = false;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+
+    static int find(int[] parent, int i){
+        while(parent[i] != i){
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /** Ticks components {@code from..to}. */
+    public void tick(int from, int to){
+        for(int c = from; c < to; c++){
+            tick(c);
+        }
+    }
+
+    public void tick(){
+        tick(0, components);
+    }
+
+    void tick(int c){
+        LogicNetlist netlist = this.netlist;
+        int[] netOf = this.netOf;
+        boolean[] uniform = this.uniform;
+        int first = netStart[c], last = netStart[c + 1];
+
+        for(int i = netlist.componentStart[c], end = netlist.componentStart[c + 1]; i < end; i++){
+            int n = netOf[i];
+            if(n == -1 || !uniform[n]){
+                netlist.emit(i);
+            }else if(boundary[i]){
+                emitOutside(i, values[n * 2 + color[i]]);
+            }
+        }
+
+        for(int n = first; n < last; n++){
+            if(uniform[n]) latchUniform(n);
+        }
+        batch(c).latch();
+        for(int n = first; n < last; n++){
+            if(uniform[n]) continue;
+            for(int k = memberStart[n]; k < memberStart[n + 1]; k++){
+                netlist.latch(members[k]);
+            }
+        }
+
+        for(int n = first; n < last; n++){
+            if(!uniform[n] && --retry[n] <= 0) tryUniform(n);
+        }
+    }
+
+    GateBatch batch(int c){
+        if(batches[c] == null){
+            IntSeq others = new IntSeq();
+            for(int i = netlist.componentStart[c]; i < netlist.componentStart[c + 1]; i++){
+                if(netOf[i] == -1) others.add(i);
+            }
+            batches[c] = new GateBatch(netlist, others.toArray());
+        }
+        return batches[c];
+    }
+
+    void emitOutside(int i, int signal){
+        LogicNetlist netlist = this.netlist;
+        int n = netOf[i];
+        for(int e = netlist.outStart[i], end = netlist.outStart[i + 1]; e < end; e++){
+            int target = netlist.outTarget[e];
+            if(netOf[target] != n) netlist.deliver(target, netlist.outPort[e], signal);
+        }
+    }
+
+    /** Swaps colors if outside signals are already covered, otherwise net is expanded into relays. */
+    void latchUniform(int n){
+        int[] next = netlist.next;
+        int[] values = this.values;
+        for(int k = inputStart[n]; k < inputStart[n + 1]; k++){
+            int i = inputs[k];
+            if((next[i] & ~values[n * 2 + 1 - color[i]]) != 0){
+                expand(n);
+                return;
+            }
+        }
+        for(int k = inputStart[n]; k < inputStart[n + 1]; k++){
+            next[inputs[k]] = 0;
+        }
+        int swap = values[n * 2];
+        values[n * 2] = values[n * 2 + 1];
+        values[n * 2 + 1] = swap;
+    }
+
+    /** Writes state of uniform net into relays in the middle of tick: internal signals skipped during emit are added to next. */
+    void expand(int n){
+        int[] last = netlist.last, next = netlist.next;
+        for(int k = memberStart[n]; k < memberStart[n + 1]; k++){
+            int i = members[k];
+            last[i] = values[n * 2 + color[i]];
+            next[i] |= values[n * 2 + 1 - color[i]];
+        }
+        uniform[n] = false;
+        retry[n] = retryTicks;
+    }
+
+    void tryUniform(int n){
+        int[] last = netlist.last, next = netlist.next;
+        boolean[] seen = new boolean[2];
+        int[] value = new int[2];
+        for(int k = memberStart[n]; k < memberStart[n + 1]; k++){
+            int i = members[k], c = color[i];
+            if(next[i] != 0) return;
+            if(!seen[c]){
+                seen[c] = true;
+                value[c] = last[i];
+            }else if(last[i] != value[c]){
+                retry[n] = retryTicks;
+                return;
+            }
+        }
+        values[n * 2] = value[0];
+        values[n * 2 + 1] = value[1];
+        uniform[n] = true;
+    }
+
+    /** @return amount of nets handled as single values */
+    public int uniform(){
+        int count = 0;
+        for(boolean u : uniform){
+            if(u) count++;
+        }
+        return count;
+    }
+
+    /** @return amount of nets */
+    public int nets(){
+        return uniform.length;
+    }
+
+    /** Something outside is about to change slot state, its net goes back to relays. */
+    public void input(int slot){
+        int n = netOf[slot];
+        if(n == -1) return;
+        if(uniform[n]) materialize(n);
+        uniform[n] = false;
+        retry[n] = retryTicks;
+    }
+
+    /** Copies values of uniform nets into relays, nets stay uniform. */
+    public void materialize(){
+        for(int n = 0; n < uniform.length; n++){
+            if(uniform[n]) materialize(n);
+        }
+    }
+
+    /** Copies values of uniform nets of component {@code c} into relays. */
+    public void materializeComponent(int c){
+        for(int n = netStart[c]; n < netStart[c + 1]; n++){
+            if(uniform[n]) materialize(n);
+        }
+    }
+
+    /** @return {@code hash} mixed with values of uniform nets of component {@code c}, relays of such nets keep stale signals */
+    public long hash(int c, long hash){
+        for(int n = netStart[c]; n < netStart[c + 1]; n++){
+            if(!uniform[n]) continue;
+            hash = DormantTicker.mix(hash, values[n * 2]);
+            hash = DormantTicker.mix(hash, values[n * 2 + 1]);
+        }
+        return hash;
+    }
+
+    /** Materializes every net and ticks relays one by one again, e.g. before another ticker takes over. */
+    public void reset(){
+        for(int n = 0; n < uniform.length; n++){
+            if(uniform[n]) materialize(n);
+            uniform[n] = false;
+            retry[n] = 0;
+        }
+    }
+
+    void materialize(int n){
+        int[] last = netlist.last;
+        for(int k = memberStart[n]; k < memberStart[n + 1]; k++){
+            int i = members[k];
+            last[i] = values[n * 2 + color[i]];
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package bytelogic.async.netlist;
+
+import arc.struct.*;
+
+import static bytelogic.async.netlist.LogicNetlist.*;
+
+/**
+ * Zero-delay alternative to {@link LogicNetlist#tick()}.
+ * Slots outside of feedback loops are evaluated in topological order, so signal passes any acyclic chain in one tick.
+ * Slots of loops (strongly connected components) and timers stay registers: they send value of previous tick and latch after everything else.
+ */
+public class SettleTicker{
+    public final LogicNetlist netlist;
+    /** Slots keeping one tick delay, in slot order */
+    final int[] registers;
+    /** Other slots in topological order */
+    final int[] order;
+
+    public SettleTicker(LogicNetlist netlist){
+        this.netlist = netlist;
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget;
+
+        boolean[] register = new boolean[size];
+        int[] component = components(netlist);
+        int[] componentSize = new int[size];
+        for(int i = 0; i < size; i++){
+            componentSize[component[i]]++;
+        }
+        IntSeq registers = new IntSeq();
+        for(int i = 0; i < size; i++){
+            boolean loop = componentSize[component[i]] > 1 || netlist.kinds[i] == kindTimer;
+            for(int e = outStart[i]; e < outStart[i + 1] && !loop; e++){
+                loop = outTarget[e] == i;
+            }
+            register[i] = loop;
+            if(loop) registers.add(i);
+        }
+        this.registers = registers.toArray();
+
+        //Kahn's algorithm over edges between combinational slots
+        int[] pending = new int[size];
+        for(int i = 0; i < size; i++){
+            if(register[i]) continue;
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                if(!register[outTarget[e]]) pending[outTarget[e]]++;
+            }
+        }
+        IntSeq order = new IntSeq(size - registers.size);
+        for(int i = 0; i < size; i++){
+            if(!register[i] && pending[i] == 0) order.add(i);
+        }
+        for(int k = 0; k < order.size; k++){
+            int i = order.items[k];
+            for(int e = outStart[i]; e < outStart[i + 1]; e++){
+                int target = outTarget[e];
+                if(!register[target] && --pending[target] == 0) order.add(target);
+            }
+        }
+        this.order = order.toArray();
+    }
+
+    public void tick(){
+        LogicNetlist netlist = this.netlist;
+        for(int i : registers){
+            netlist.emit(i);
+        }
+        for(int i : order){
+            netlist.latch(i);
+            netlist.emit(i);
+        }
+        for(int i : registers){
+            netlist.latch(i);
+        }
+    }
+
+    /** @return amount of slots which keep one tick delay */
+    public int registers(){
+        return registers.length;
+    }
+
+    /** Iterative Tarjan's algorithm, chains of logic blocks are too long for recursion. */
+    static int[] components(LogicNetlist netlist){
+        int size = netlist.size;
+        int[] outStart = netlist.outStart, outTarget = netlist.outTarget;
+        int[] index = new int[size], low = new int[size], component = new int[size], edge = new int[size];
+        boolean[] onStack = new boolean[size];
+        IntSeq stack = new IntSeq(), path = new IntSeq();
+        int counter = 1, components = 0;
+
+        for(int root = 0; root < size; root++){
+            if(index[root] != 0) continue;
+            path.add(root);
+            index[root] = low[root] = counter++;
+            edge[root] = outStart[root];
+            stack.add(root);
+            onStack[root] = true;
+
+            while(!path.isEmpty()){
+                int v = path.peek();
+                if(edge[v] < outStart[v + 1]){
+                    int w = outTarget[edge[v]++];
+                    if(index[w] == 0){
+                        index[w] = low[w] = counter++;
+                        edge[w] = outStart[w];
+                        stack.add(w);
+                        onStack[w] = true;
+                        path.add(w);
+                    }else if(onStack[w]){
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                path.pop();
+                if(!path.isEmpty()){
+                    int parent = path.peek();
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if(low[v] == index[v]){
+                    int w;
+                    do{
+                        w = stack.pop();
+                        onStack[w] = false;
+                        component[w] = components;
+                    }while(w != v);
+                    components++;
+                }
+            }
+        }
+        return component;
+    }
+}
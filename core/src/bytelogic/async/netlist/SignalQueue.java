@@ -0,0 +1,146 @@
+package bytelogic.async.netlist;
+
+/**
+ * Delay line of {@link LogicNetlist#kindTimer}: signal written by tick {@code t} is the output of tick {@code t + delay - 1}.
+ * Only changes of written signal are kept, each as event "output becomes value at tick".
+ * Delay of timer is fixed, so events are due in the order they were scheduled and one FIFO per timer is enough,
+ * timer carrying steady signal costs one comparison per tick and its memory does not depend on delay.
+ */
+public class SignalQueue{
+    private int delay;
+    /** Ticks shifted so far, due ticks of events are compared with it */
+    private int time;
+    /** Current output */
+    private int value;
+    /** Signal written last, output after every event is due */
+    private int tail;
+    /** Ring of events, {@code count} of them starting at {@code head} */
+    private int[] due = new int[4], values = new int[4];
+    private int head, count;
+
+    public SignalQueue(int delay){
+        this.delay = Math.max(delay, 1);
+    }
+
+    /**
+     * @param window outputs of this and next ticks, {@code window[0]} is the current output
+     * @return queue with delay equal to window length
+     */
+    public static SignalQueue window(int[] window){
+        SignalQueue queue = new SignalQueue(window.length);
+        queue.value = queue.tail = window.length == 0 ? 0 : window[0];
+        for(int ahead = 1; ahead < window.length; ahead++){
+            //only changes are events, steady window of legacy timer leaves queue empty
+            if(window[ahead] != queue.tail) queue.schedule(ahead - 1, window[ahead]);
+        }
+        return queue;
+    }
+
+    public int delay(){
+        return delay;
+    }
+
+    /** Changes delay of queued signals too, signals which should have left already are replaced by the newest of them on next shift. */
+    public void delay(int delay){
+        delay = Math.max(delay, 1);
+        for(int k = 0; k < count; k++){
+            due[(head + k) & (due.length - 1)] += delay - this.delay;
+        }
+        this.delay = delay;
+    }
+
+    /** Writes signal of this tick, @return output of this tick */
+    public int shift(int signal){
+        if(signal != tail) schedule(time + delay - 1, signal);
+        while(count > 0 && due[head] - time <= 0){
+            value = values[head];
+            head = (head + 1) & (due.length - 1);
+            count--;
+        }
+        time++;
+        return value;
+    }
+
+    /** @return current output */
+    public int value(){
+        return value;
+    }
+
+    /** @return whether output is going to change without new signals written */
+    public boolean pending(){
+        return count > 0;
+    }
+
+    /** @return output {@code ahead} ticks later if nothing else is written, {@code ahead < delay} */
+    public int at(int ahead){
+        //last event due not later than that tick
+        int low = 0, high = count;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(due[(head + middle) & (due.length - 1)] - time < ahead){
+                low = middle + 1;
+            }else{
+                high = middle;
+            }
+        }
+        return low == 0 ? value : values[(head + low - 1) & (due.length - 1)];
+    }
+
+    private void schedule(int tick, int signal){
+        if(count == due.length) grow();
+        int index = (head + count) & (due.length - 1);
+        due[index] = tick;
+        values[index] = signal;
+        count++;
+        tail = signal;
+    }
+
+    private void grow(){
+        int[] due = new int[this.due.length * 2], values = new int[due.length];
+        for(int k = 0; k < count; k++){
+            due[k] = this.due[(head + k) & (this.due.length - 1)];
+            values[k] = this.values[(head + k) & (this.values.length - 1)];
+        }
+        this.due = due;
+        this.values = values;
+        head = 0;
+    }
+
+    /** @return amount of ints written by {@link #write(int[], int)} */
+    public int stateSize(){
+        return 2 + count * 2;
+    }
+
+    /** Writes state with due ticks relative to current tick, so equal states give equal ints. @return offset after written state */
+    public int write(int[] out, int offset){
+        out[offset++] = value;
+        out[offset++] = count;
+        for(int k = 0; k < count; k++){
+            int index = (head + k) & (due.length - 1);
+            out[offset++] = due[index] - time;
+            out[offset++] = values[index];
+        }
+        return offset;
+    }
+
+    /** Reads state written by {@link #write(int[], int)}. @return offset after read state */
+    public int read(int[] in, int offset){
+        value = tail = in[offset++];
+        int events = in[offset++];
+        head = count = 0;
+        for(int k = 0; k < events; k++){
+            schedule(time + in[offset++], in[offset++]);
+        }
+        return offset;
+    }
+
+    public long hash(long hash){
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        for(int k = 0; k < count; k++){
+            int index = (head + k) & (due.length - 1);
+            hash = (hash ^ (due[index] - time)) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ values[index]) * 0x9E3779B97F4A7C15L;
+        }
+        return hash;
+    }
+}
@@ -68,7 +68,7 @@ public class ByteLogicBlocks {
         notGate = new UnaryLogicBlock(namePrefix + "not-gate") {{
             requirements(blockCategory, bothRequirements.clone());
 
-            processor = input -> input != 0 ? 0 : 1;
+            opcode = GateOpcode.not;
         }};
 
         andGate = new BinaryLogicBlock(namePrefix + "and-gate") {{
@@ -78,7 +78,7 @@ public class ByteLogicBlocks {
             needImageCompilation =true;
             ownsCenterRegion=false;
 
-            processor = (left, right) -> left & right;
+            opcode = GateOpcode.and;
             operatorName = "and";
         }};
 
@@ -89,7 +89,7 @@ public class ByteLogicBlocks {
             needImageCompilation =true;
             ownsCenterRegion=false;
 
-            processor = (left, right) -> left | right;
+            opcode = GateOpcode.or;
             operatorName = "or";
         }};
 
@@ -100,17 +100,14 @@ public class ByteLogicBlocks {
             needImageCompilation =true;
             ownsCenterRegion=false;
 
-            processor = (left, right) -> left ^ right;
+            opcode = GateOpcode.xor;
             operatorName = "xor";
         }};
 
         adder = new BinaryLogicBlock(namePrefix + "adder") {{
             requirements(blockCategory, bothRequirements.clone());
 
-            processor = (left, right) -> {
-                long result = (long) left + right;
-                return (int) Math.min(result, Integer.MAX_VALUE);
-            };
+            opcode = GateOpcode.add;
             operatorName = "+";
         }};
 
@@ -118,7 +115,7 @@ public class ByteLogicBlocks {
             requirements(blockCategory, bothRequirements.clone());
             canFlip = true;
             operatorName = "-";
-            processor = (left, right) -> Math.max(left - right, 0);
+            opcode = GateOpcode.sub;
         }};
 
         divider = new BinaryLogicBlock(namePrefix + "divider") {{
@@ -126,35 +123,35 @@ public class ByteLogicBlocks {
 
             canFlip = true;
             operatorName = "/";
-            processor = (left, right) -> right == 0 ? 0 : left / right;
+            opcode = GateOpcode.div;
         }};
 
         remainder = new BinaryLogicBlock(namePrefix + "remainder") {{
             requirements(blockCategory, bothRequirements.clone());
             canFlip = true;
             operatorName = "%";
-            processor = (left, right) -> right == 0 ? 0 : left % right;
+            opcode = GateOpcode.mod;
         }};
 
         multiplier = new BinaryLogicBlock(namePrefix + "multiplier") {{
             requirements(blockCategory, bothRequirements.clone());
 
             operatorName = "*";
-            processor = (left, right) -> left * right;
+            opcode = GateOpcode.mul;
         }};
 
         equalizer = new BinaryLogicBlock(namePrefix + "equalizer") {{
             requirements(blockCategory, bothRequirements.clone());
 
             operatorName = "==";
-            processor = (left, right) -> left == right ? 1 : 0;
+            opcode = GateOpcode.eq;
         }};
 
         comparator = new BinaryLogicBlock(namePrefix + "comparator") {{
             requirements(blockCategory, bothRequirements.clone());
             canFlip = true;
             operatorName = " > ";
-            processor = (left, right) -> left > right ? 1 : 0;
+            opcode = GateOpcode.gt;
         }};
 
         displayBlock = new DisplayBlock(namePrefix + "display") {{
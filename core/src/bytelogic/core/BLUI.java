@@ -2,6 +2,7 @@ package bytelogic.core;
 
 import arc.struct.*;
 import arc.util.*;
+import bytelogic.async.netlist.*;
 import bytelogic.content.*;
 import bytelogic.gen.*;
 import arc.ApplicationListener;
@@ -191,6 +192,38 @@ public class BLUI extends mma.core.ModUI implements Disposable, ApplicationListe
         inTry(BLTex::load);
         inTry(ModStyles::load);
         inTry(ModHudFragment::init);
+        Vars.ui.settings.game.checkPref(settings.full("compiled-logic"), settings.compiledLogic(), stateUpdater::useCompiledEngine);
+        Vars.ui.settings.game.checkPref(settings.full("event-driven-logic"), settings.eventDrivenLogic(), stateUpdater::useEventDriven);
+        Vars.ui.settings.game.checkPref(settings.full("combinational-logic"), settings.combinationalLogic(), stateUpdater::useCombinational);
+        Vars.ui.settings.game.checkPref(settings.full("skip-periodic-logic"), settings.skipPeriodicLogic(), stateUpdater::useCycleSkipping);
+        Vars.ui.settings.game.checkPref(settings.full("sleep-idle-logic"), settings.sleepIdleLogic(), stateUpdater::useSleeping);
+        Vars.ui.settings.game.checkPref(settings.full("bit-sliced-logic"), settings.bitSlicedLogic(), stateUpdater::useBitSlicing);
+        if(CircuitCompiler.available()){
+            Vars.ui.settings.game.checkPref(settings.full("bytecode-logic"), settings.bytecodeLogic(), stateUpdater::useBytecode);
+        }
+        Vars.ui.settings.game.checkPref(settings.full("collapse-node-chains"), settings.collapseNodeChains(), stateUpdater::useChainCollapsing);
+        Vars.ui.settings.game.checkPref(settings.full("fold-constants"), settings.foldConstants(), stateUpdater::useConstantFolding);
+        Vars.ui.settings.game.checkPref(settings.full("skip-dead-logic"), settings.skipDeadLogic(), stateUpdater::useDeadLogicElimination);
+        Vars.ui.settings.game.checkPref(settings.full("dead-logic-overlay"), settings.deadLogicOverlay(), overlay -> {
+            LogicBlock.deadLogicOverlay = overlay;
+        });
+        Vars.ui.settings.game.checkPref(settings.full("relay-nets"), settings.relayNets(), stateUpdater::useRelayNets);
+        Vars.ui.settings.game.checkPref(settings.full("pull-evaluation"), settings.pullEvaluation(), stateUpdater::usePullEvaluation);
+        Vars.ui.settings.game.sliderPref(settings.full("logic-threads"), settings.logicThreads(), 1, Runtime.getRuntime().availableProcessors(), threads -> {
+            stateUpdater.useThreads(threads);
+            return threads + "";
+        });
+        Vars.ui.settings.game.sliderPref(settings.full("logic-max-ticks"), settings.logicMaxTicks(), 1, 60, ticks -> {
+            stateUpdater.useBudget(ticks, settings.logicTickBudget(), settings.logicDeferDebt());
+            return ticks + "";
+        });
+        Vars.ui.settings.game.sliderPref(settings.full("logic-tick-budget"), settings.logicTickBudget(), 1, 50, millis -> {
+            stateUpdater.useBudget(settings.logicMaxTicks(), millis, settings.logicDeferDebt());
+            return millis + " ms";
+        });
+        Vars.ui.settings.game.checkPref(settings.full("logic-defer-debt"), settings.logicDeferDebt(), defer -> {
+            stateUpdater.useBudget(settings.logicMaxTicks(), settings.logicTickBudget(), defer);
+        });
 
         colorPicker = new ModColorPicker();
 //        radiusRenderer =new RadiusRenderer();
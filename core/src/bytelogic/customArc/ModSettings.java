@@ -5,7 +5,7 @@ import arc.Core;
 public class ModSettings {
     public ModSettings(){
     }
-    private String full(String name){
+    public String full(String name){
         return "braindustry-java-"+(name);
     }
     private void put(String name,Object value){
@@ -61,4 +61,106 @@ public class ModSettings {
     public void debug(boolean debug){
         put("debug",debug);
     }
+    public boolean compiledLogic(){
+        return getBool("compiled-logic",false);
+    }
+    public void compiledLogic(boolean compiledLogic){
+        put("compiled-logic",compiledLogic);
+    }
+    public boolean eventDrivenLogic(){
+        return getBool("event-driven-logic",false);
+    }
+    public void eventDrivenLogic(boolean eventDrivenLogic){
+        put("event-driven-logic",eventDrivenLogic);
+    }
+    public boolean combinationalLogic(){
+        return getBool("combinational-logic",false);
+    }
+    public void combinationalLogic(boolean combinationalLogic){
+        put("combinational-logic",combinationalLogic);
+    }
+    public boolean skipPeriodicLogic(){
+        return getBool("skip-periodic-logic",false);
+    }
+    public void skipPeriodicLogic(boolean skipPeriodicLogic){
+        put("skip-periodic-logic",skipPeriodicLogic);
+    }
+    public boolean sleepIdleLogic(){
+        return getBool("sleep-idle-logic",false);
+    }
+    public void sleepIdleLogic(boolean sleepIdleLogic){
+        put("sleep-idle-logic",sleepIdleLogic);
+    }
+    public boolean bitSlicedLogic(){
+        return getBool("bit-sliced-logic",false);
+    }
+    public void bitSlicedLogic(boolean bitSlicedLogic){
+        put("bit-sliced-logic",bitSlicedLogic);
+    }
+    public boolean bytecodeLogic(){
+        return getBool("bytecode-logic",false);
+    }
+    public void bytecodeLogic(boolean bytecodeLogic){
+        put("bytecode-logic",bytecodeLogic);
+    }
+    public boolean collapseNodeChains(){
+        return getBool("collapse-node-chains",false);
+    }
+    public void collapseNodeChains(boolean collapseNodeChains){
+        put("collapse-node-chains",collapseNodeChains);
+    }
+    public boolean foldConstants(){
+        return getBool("fold-constants",false);
+    }
+    public void foldConstants(boolean foldConstants){
+        put("fold-constants",foldConstants);
+    }
+    public boolean skipDeadLogic(){
+        return getBool("skip-dead-logic",false);
+    }
+    public void skipDeadLogic(boolean skipDeadLogic){
+        put("skip-dead-logic",skipDeadLogic);
+    }
+    public boolean deadLogicOverlay(){
+        return getBool("dead-logic-overlay",false);
+    }
+    public void deadLogicOverlay(boolean deadLogicOverlay){
+        put("dead-logic-overlay",deadLogicOverlay);
+    }
+    public boolean relayNets(){
+        return getBool("relay-nets",false);
+    }
+    public void relayNets(boolean relayNets){
+        put("relay-nets",relayNets);
+    }
+    public boolean pullEvaluation(){
+        return getBool("pull-evaluation",false);
+    }
+    public void pullEvaluation(boolean pullEvaluation){
+        put("pull-evaluation",pullEvaluation);
+    }
+    public int logicThreads(){
+        return getInt("logic-threads",Runtime.getRuntime().availableProcessors());
+    }
+    public void logicThreads(int logicThreads){
+        put("logic-threads",logicThreads);
+    }
+    public int logicMaxTicks(){
+        return getInt("logic-max-ticks",10);
+    }
+    public void logicMaxTicks(int logicMaxTicks){
+        put("logic-max-ticks",logicMaxTicks);
+    }
+    public int logicTickBudget(){
+        return getInt("logic-tick-budget",8);
+    }
+    public void logicTickBudget(int logicTickBudget){
+        put("logic-tick-budget",logicTickBudget);
+    }
+    public boolean logicDeferDebt(){
+        return getBool("logic-defer-debt",false);
+    }
+    public void logicDeferDebt(boolean logicDeferDebt){
+        put("logic-defer-debt",logicDeferDebt);
+    }
 }
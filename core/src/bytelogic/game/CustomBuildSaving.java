@@ -2,6 +2,7 @@ package bytelogic.game;
 
 import arc.struct.*;
 import arc.util.io.*;
+import bytelogic.*;
 import bytelogic.annotations.BLAnnotations.*;
 import mindustry.*;
 import mindustry.gen.*;
@@ -20,6 +21,7 @@ public class CustomBuildSaving implements CustomChunk{
 
     @Override
     public void write(DataOutput stream) throws IOException{
+        BLVars.stateUpdater.flush();
         tmpSeq.clear();
         Vars.world.tiles.eachTile(tile -> {
             if(tile.build instanceof CustomSaveBuilding){
@@ -7,7 +7,8 @@ public class BLPal {
     public static final Color
             positiveSignalColor = Pal.accent.cpy(),
             zeroSignalColor = Color.white.cpy(),
-            negativeSignalColor = Pal.remove.cpy();
+            negativeSignalColor = Pal.remove.cpy(),
+            deadSignalColor = Color.darkGray.cpy();
     public static final Color
             positiveSignalBarColor = Pal.accent.cpy(),
             zeroSignalBarColor = Color.darkGray.cpy(),
@@ -1,6 +1,7 @@
 package bytelogic.world.blocks.logic;
 
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.ByteLogicBuildingc;
 
 public class AcceptorLogicBlock extends LogicBlock{
@@ -17,11 +18,10 @@ public class AcceptorLogicBlock extends LogicBlock{
         }
 
         @Override
-        public void beforeUpdateSignalState(){
-
+        public void compileOutputs(OutputCollector outputs){
             for(int i = 0; i < 4; i++){
-                if (canOutputSignal((byte)i)){
-                    nearby(i).<ByteLogicBuildingc>as().acceptSignal(this,lastSignal);
+                if(canOutputSignal(i)){
+                    outputs.output(nearby(i));
                 }
             }
         }
@@ -9,6 +9,9 @@ import arc.scene.ui.*;
 import arc.scene.ui.layout.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.*;
+import bytelogic.async.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import mindustry.*;
 import mindustry.annotations.Annotations.*;
@@ -30,12 +33,20 @@ public class AnalyzerBlock extends LogicBlock{
         configurable = true;
         this.<Integer, AnaylzerBuild>config(Integer.class, (build, value) -> {
             build.analyzeMode = value;
+            build.resolved = false;
         });
     }
 
 
     public class AnaylzerBuild extends LogicBuild{
         public int analyzeMode;
+        /** Whether {@link #target} and content are resolved from current {@link #analyzeMode} and proximity */
+        protected boolean resolved;
+        protected @Nullable Building target;
+        protected @Nullable Item item;
+        protected @Nullable Liquid liquid;
+        /** Last reading and samples taken since placement or load, readings of analyzers are spread by tile position */
+        protected int sampled, samples;
 
         @Override
         public void buildConfiguration(Table table){
@@ -112,44 +123,96 @@ public class AnalyzerBlock extends LogicBlock{
             Draw.rect(region, dx, dy, s, s * regionInvAspect);
         }
 
-        //        @Override
-        private int calculateNextSignal(){
-            Building back = back();
-
+        /** Finds watched building and selected content, done again after configuration or proximity change. */
+        public void resolveTarget(){
             int mode = AnalyzeMode.mode(this.analyzeMode);
             int selection = AnalyzeMode.selection(this.analyzeMode);
-
-            if(back == null){
-                return 0;
-            }else if(mode == modePowerBalance && back.block().hasPower){
-                return Math.round(back.power.graph.getPowerBalance() * 60);
-            }else if(mode == modePowerBattery && back.block().hasPower){
-                return Math.round(back.power.graph.getBatteryStored());
-            }else if(mode == modeItem && back.block().hasItems){
-                Item item = Vars.content.item(selection);
-                return item == null ? back.items.total() : back.items.get(item);
-            }else if(mode == modeLiquid && back.block().hasLiquids){
-                Liquid liquid = Vars.content.liquid(selection);
-                return liquid == null ? (int)back.liquids.currentAmount() : (int)back.liquids.get(liquid);
+            Building back = back();
+            target = null;
+            item = null;
+            liquid = null;
+            if(back != null){
+                switch(mode){
+                    case modePowerBalance, modePowerBattery -> {
+                        if(back.block().hasPower) target = back;
+                    }
+                    case modeItem -> {
+                        if(back.block().hasItems) target = back;
+                        item = Vars.content.item(selection);
+                    }
+                    case modeLiquid -> {
+                        if(back.block().hasLiquids) target = back;
+                        liquid = Vars.content.liquid(selection);
+                    }
+                }
             }
+            resolved = true;
+        }
 
-            return 0;
+        /** @return value of watched building, read again only once per {@link BlockStateUpdater#analyzerInterval()} calls */
+        public int sampleSignal(){
+            if(!resolved || target != null && !target.isValid()) resolveTarget();
+            int interval = BLVars.stateUpdater.analyzerInterval();
+            if((samples++ + pos()) % interval != 0) return sampled;
+            return sampled = calculateNextSignal();
+        }
+
+        public int calculateNextSignal(){
+            if(!resolved) resolveTarget();
+            Building target = this.target;
+            if(target == null) return 0;
+
+            return switch(AnalyzeMode.mode(this.analyzeMode)){
+                case modePowerBalance -> Math.round(BLVars.stateUpdater.powerSampler.balance(target.power.graph) * 60);
+                case modePowerBattery -> Math.round(BLVars.stateUpdater.powerSampler.battery(target.power.graph));
+                case modeItem -> item == null ? target.items.total() : target.items.get(item);
+                case modeLiquid -> liquid == null ? (int)target.liquids.currentAmount() : (int)target.liquids.get(liquid);
+                default -> 0;
+            };
+        }
+
+        @Override
+        public void onProximityUpdate(){
+            super.onProximityUpdate();
+            resolved = false;
         }
 
         @Override
         public void updateSignalState(){
 
-            nextSignal = calculateNextSignal();
+            nextSignal = sampleSignal();
             super.updateSignalState();
         }
 
         @Override
-        public void beforeUpdateSignalState(){
+        public boolean configChangesWiring(){
+            return false;
+        }
+
+        @Override
+        public int inputPort(Building sender){
+            //received signals are overwritten by analyzed value
+            return LogicNetlist.portNone;
+        }
+
+        @Override
+        public void compileOutputs(OutputCollector outputs){
             if(doOutput && canOutputSignal(rotation)){
-                front().<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
+                outputs.output(front());
             }
         }
 
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindAnalyzer;
+        }
+
+        @Override
+        public void reloadNetlist(LogicNetlist netlist, int index){
+            //analyze mode is used by LogicNetlist.sample()
+        }
+
         @Override
         public Integer config(){
             return analyzeMode;
@@ -169,6 +232,7 @@ public class AnalyzerBlock extends LogicBlock{
         public void read(Reads read, byte revision){
             super.read(read, revision);
             if(revision < version()) analyzeMode = read.i();
+            resolved = false;
         }
 
         @Override
@@ -179,6 +243,7 @@ public class AnalyzerBlock extends LogicBlock{
         @Override
         public void customRead(Reads read){
             analyzeMode = read.i();
+            resolved = false;
         }
 
         @Override
@@ -13,6 +13,7 @@ import arc.scene.ui.*;
 import arc.scene.ui.layout.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import mindustry.*;
 import mindustry.annotations.Annotations.*;
@@ -51,6 +52,8 @@ public abstract class BinaryLogicBlock extends LogicBlock implements ImageGenera
     public TextureRegion[] compiledRegions = new TextureRegion[2];
     public boolean needImageCompilation;
     protected /*@NonNull*/ BinaryProcessor processor;
+    /** Built-in operation, used as processor if it is not set */
+    public @Nullable GateOpcode opcode;
 
     public BinaryLogicBlock(String name){
         super(name);
@@ -106,6 +109,7 @@ public abstract class BinaryLogicBlock extends LogicBlock implements ImageGenera
     public void init(){
         super.init();
         consumesTap = canFlip;
+        if(processor == null) processor = opcode;
         if(processor == null){
             throw new IllegalArgumentException("processor of " + name + " is null");
         }
@@ -213,24 +217,65 @@ public abstract class BinaryLogicBlock extends LogicBlock implements ImageGenera
 
         @Override
         public boolean acceptSignal(ByteLogicBuildingc otherBuilding, int signal){
-            if(right() == otherBuilding && (inputType != rightFromBackInputType)){
-                sides[rightSideIndex] = signal;
-                return true;
+            int side = inputSide(otherBuilding.as());
+            if(side == -1) return false;
+            sides[side] = signal;
+            return true;
+//            return super.acceptSignal(otherBuilding, signal);
+        }
+
+        @Override
+        public void receiveSignal(int port, int signal){
+            sides[port - LogicNetlist.portSide] = signal;
+        }
+
+        /** @return index in {@link #sides} which receives signal from this building, -1 if signal is not accepted */
+        public int inputSide(Building other){
+            if(right() == other && (inputType != rightFromBackInputType)){
+                return rightSideIndex;
             }
-            if(left() == otherBuilding && (inputType != leftFromBackInputType)){
-                sides[leftSideIndex] = signal;
-                return true;
+            if(left() == other && (inputType != leftFromBackInputType)){
+                return leftSideIndex;
             }
-            if(back() == otherBuilding && inputType != bothSideInputType){
+            if(back() == other && inputType != bothSideInputType){
                 if(inputType == leftFromBackInputType){
-                    sides[leftSideIndex] = signal;
+                    return leftSideIndex;
                 }else{//1
-                    sides[rightSideIndex] = signal;
+                    return rightSideIndex;
                 }
-                return true;
             }
-            return false;
-//            return super.acceptSignal(otherBuilding, signal);
+            return -1;
+        }
+
+        @Override
+        public int inputPort(Building sender){
+            int side = inputSide(sender);
+            return side == -1 ? LogicNetlist.portNone : LogicNetlist.portSide + side;
+        }
+
+        @Override
+        public void compileOutputs(OutputCollector outputs){
+            if(doOutput && canOutputSignal(rotation)){
+                outputs.output(front());
+            }
+        }
+
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindBinary;
+            netlist.binary[index] = processor;
+            netlist.opcodes[index] = processor == opcode ? opcode : null;
+            netlist.flipped[index] = flippedInputs;
+            netlist.inputs[index * 2] = sides[leftSideIndex];
+            netlist.inputs[index * 2 + 1] = sides[rightSideIndex];
+        }
+
+        @Override
+        public void readNetlist(LogicNetlist netlist, int index){
+            super.readNetlist(netlist, index);
+            sides[leftSideIndex] = netlist.inputs[index * 2];
+            sides[rightSideIndex] = netlist.inputs[index * 2 + 1];
         }
 
         @Override
@@ -243,13 +288,6 @@ public abstract class BinaryLogicBlock extends LogicBlock implements ImageGenera
 
         }
 
-        @Override
-        public void beforeUpdateSignalState(){
-            if(doOutput && canOutputSignal(rotation)){
-                front().<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
-            }
-        }
-
         //        @Override
         public int getNextSignal(){
             int left, right;
@@ -4,31 +4,51 @@ import arc.graphics.Color;
 import arc.graphics.g2d.*;
 import arc.math.Mathf;
 import arc.math.geom.*;
-import arc.util.Time;
-import arc.util.Tmp;
+import arc.util.*;
+import bytelogic.*;
 import mindustry.gen.*;
 import mindustry.graphics.*;
-import mindustry.logic.*;
 import mindustry.world.*;
 
 import static mindustry.Vars.tilesize;
 
 public class ControllerBlock extends UnaryLogicBlock {
+    /** Ticks between repeated commands keeping controlled building disabled, must be less than its uncontrol time */
+    public static float refreshTicks = 60f * 4;
 
     public ControllerBlock(String name) {
         super(name);
-        processor = in -> in;
+        opcode = GateOpcode.identity;
     }
 
     public class ControllerBuild extends UnaryLogicBuild {
+        /** Building and state of the last queued command */
+        protected @Nullable Building controlled;
+        protected boolean controlledEnabled;
+        protected float refreshTimer;
+
+        @Override
+        public boolean signalSink() {
+            return true;
+        }
+
         @Override
         public void update() {
             super.update();
 
             Building facing = front();
-            if (facing != null) {
-                int currentSignal = currentSignal();
-                facing.control(LAccess.enabled, currentSignal, 0, 0, 0);
+            if (facing == null) {
+                controlled = null;
+                return;
+            }
+            boolean enabled = currentSignal() != 0;
+            refreshTimer -= Time.delta;
+            //disabled buildings enable themselves again if control is not repeated
+            if (facing != controlled || enabled != controlledEnabled || !enabled && refreshTimer <= 0) {
+                controlled = facing;
+                controlledEnabled = enabled;
+                refreshTimer = refreshTicks;
+                BLVars.stateUpdater.actuators.enabled(facing, enabled);
             }
         }
 
@@ -18,6 +18,11 @@ public class DisplayBlock extends AcceptorLogicBlock {
 
     public class DisplayBuild extends AcceptorLogicBuild {
 
+        @Override
+        public boolean signalSink() {
+            return true;
+        }
+
         @Override
         public void draw() {
             super.draw();
@@ -43,5 +43,9 @@ root_table.row();
 
     public class FontSignalBuild extends UnaryLogicBuild{
 
+        @Override
+        public boolean signalSink(){
+            return true;
+        }
     }
 }
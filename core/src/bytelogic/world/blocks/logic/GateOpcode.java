@@ -0,0 +1,137 @@
+package bytelogic.world.blocks.logic;
+
+import bytelogic.world.blocks.logic.BinaryLogicBlock.*;
+import bytelogic.world.blocks.logic.UnaryLogicBlock.*;
+
+/**
+ * Operations of built-in gates.
+ * Gates set {@code opcode} instead of a processor lambda, so every gate goes through the same {@link #process} implementation
+ * and compiled netlist can evaluate gates of one operation in a single loop, see {@link #binary} and {@link #unary}.
+ */
+public enum GateOpcode implements BinaryProcessor, UnaryProcessor{
+    and, or, xor, add, sub, div, mod, mul, eq, gt,
+    not, identity;
+
+    public static final GateOpcode[] all = values();
+
+    public boolean isUnary(){
+        return this == not || this == identity;
+    }
+
+    @Override
+    public int process(int left, int right){
+        return switch(this){
+            case and -> left & right;
+            case or -> left | right;
+            case xor -> left ^ right;
+            case add -> (int)Math.min((long)left + right, Integer.MAX_VALUE);
+            case sub -> Math.max(left - right, 0);
+            case div -> right == 0 ? 0 : left / right;
+            case mod -> right == 0 ? 0 : left % right;
+            case mul -> left * right;
+            case eq -> left == right ? 1 : 0;
+            case gt -> left > right ? 1 : 0;
+            default -> throw new IllegalStateException(this + " is not binary");
+        };
+    }
+
+    @Override
+    public int process(int signal){
+        return switch(this){
+            case not -> signal != 0 ? 0 : 1;
+            case identity -> signal;
+            default -> throw new IllegalStateException(this + " is not unary");
+        };
+    }
+
+    /**
+     * {@code out[i] = process(left, right)} for every {@code i} in {@code slots[from..to]},
+     * inputs of slot {@code i} are {@code inputs[i * 2]} and {@code inputs[i * 2 + 1]}, swapped if {@code flipped[i]}.
+     */
+    public void binary(int[] slots, int from, int to, int[] inputs, boolean[] flipped, int[] out){
+        switch(this){
+            case and -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = inputs[i * 2] & inputs[i * 2 + 1];
+                }
+            }
+            case or -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = inputs[i * 2] | inputs[i * 2 + 1];
+                }
+            }
+            case xor -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = inputs[i * 2] ^ inputs[i * 2 + 1];
+                }
+            }
+            case add -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = (int)Math.min((long)inputs[i * 2] + inputs[i * 2 + 1], Integer.MAX_VALUE);
+                }
+            }
+            case mul -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = inputs[i * 2] * inputs[i * 2 + 1];
+                }
+            }
+            case eq -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = inputs[i * 2] == inputs[i * 2 + 1] ? 1 : 0;
+                }
+            }
+            case sub -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k], flip = flipped[i] ? 1 : 0;
+                    out[i] = Math.max(inputs[i * 2 + flip] - inputs[i * 2 + 1 - flip], 0);
+                }
+            }
+            case div -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k], flip = flipped[i] ? 1 : 0;
+                    int right = inputs[i * 2 + 1 - flip];
+                    out[i] = right == 0 ? 0 : inputs[i * 2 + flip] / right;
+                }
+            }
+            case mod -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k], flip = flipped[i] ? 1 : 0;
+                    int right = inputs[i * 2 + 1 - flip];
+                    out[i] = right == 0 ? 0 : inputs[i * 2 + flip] % right;
+                }
+            }
+            case gt -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k], flip = flipped[i] ? 1 : 0;
+                    out[i] = inputs[i * 2 + flip] > inputs[i * 2 + 1 - flip] ? 1 : 0;
+                }
+            }
+            default -> throw new IllegalStateException(this + " is not binary");
+        }
+    }
+
+    /** {@code out[i] = process(in[i])} for every {@code i} in {@code slots[from..to]}. */
+    public void unary(int[] slots, int from, int to, int[] in, int[] out){
+        switch(this){
+            case not -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = in[i] != 0 ? 0 : 1;
+                }
+            }
+            case identity -> {
+                for(int k = from; k < to; k++){
+                    int i = slots[k];
+                    out[i] = in[i];
+                }
+            }
+            default -> throw new IllegalStateException(this + " is not unary");
+        }
+    }
+}
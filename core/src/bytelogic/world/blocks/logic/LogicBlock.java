@@ -7,8 +7,12 @@ import arc.graphics.*;
 import arc.graphics.g2d.*;
 import arc.math.*;
 import arc.math.geom.*;
+import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.*;
+import bytelogic.async.*;
+import bytelogic.async.netlist.*;
 import bytelogic.content.*;
 import bytelogic.game.*;
 import bytelogic.gen.*;
@@ -24,6 +28,8 @@ import mma.*;
 import java.lang.reflect.*;
 
 public abstract class LogicBlock extends Block {
+    /** Whether buildings frozen as dead logic are drawn in {@link BLPal#deadSignalColor}, see {@link DeadLogic} */
+    public static boolean deadLogicOverlay;
     @Load("@baseName()")
     public TextureRegion base;
     public String baseName = "logic-base";
@@ -107,7 +113,11 @@ public abstract class LogicBlock extends Block {
         addBar("signal", (Building e) -> {
             ByteLogicBuildingc entity = e.as();
             return new Bar(
-                    () -> Core.bundle.format("block.signal", entity.currentSignal()),
+                    () -> {
+                        //inspected signal is needed as well as drawn one
+                        if (e instanceof LogicBuild build) BLVars.stateUpdater.demand(build);
+                        return Core.bundle.format("block.signal", entity.currentSignal());
+                    },
                     () -> {
                         return colors[Mathf.clamp(entity.currentSignal(), -1, 1) + 1];
                     },
@@ -144,9 +154,48 @@ public abstract class LogicBlock extends Block {
     public abstract class LogicBuild extends Building implements ByteLogicBuildingc , CustomSaveBuilding{
         public int lastSignal;
         protected int nextSignal;
-
+        /** Slot of this building in the last compiled {@link LogicNetlist} */
+        public int netlistIndex = -1;
+        /** Receivers resolved by {@link #compileOutputs(OutputCollector)}, valid while {@link #wiredVersion} is current */
+        protected LogicBuild[] wiredTargets = {};
+        protected int[] wiredPorts = {}, wiredGates = {};
+        /** {@link BlockStateUpdater#wiringVersion} of the last {@link #updateWiring()} */
+        protected int wiredVersion = -1;
+
+        /** Sends signal through cached wiring, see {@link #updateWiring()}. */
         @Override
         public void beforeUpdateSignalState() {
+            if (wiredVersion != BLVars.stateUpdater.wiringVersion) updateWiring();
+            LogicBuild[] targets = wiredTargets;
+            int[] ports = wiredPorts, gates = wiredGates;
+            for (int i = 0; i < targets.length; i++) {
+                if (outputOpen(gates[i])) targets[i].receiveSignal(ports[i], lastSignal);
+            }
+        }
+
+        /**
+         * Resolves receivers and their input ports, so ticks do not look at neighbours.
+         * Done again after anything calls {@link BlockStateUpdater#invalidate(LogicBuild)}: placement, removal, rotation or configuration.
+         */
+        public void updateWiring() {
+            WiringCollector collector = wiringCollector;
+            collector.sender = this;
+            compileOutputs(collector);
+            wiredTargets = collector.targets.toArray();
+            wiredPorts = collector.ports.toArray();
+            wiredGates = collector.gates.toArray();
+            collector.clear();
+            wiredVersion = BLVars.stateUpdater.wiringVersion;
+        }
+
+        /** @return whether output with side counter {@code gate} may send signal this tick, see {@link OutputCollector#output(Building, int)} */
+        public boolean outputOpen(int gate) {
+            return true;
+        }
+
+        /** Same as {@link #acceptSignal(ByteLogicBuildingc, int)} with sender already resolved into port by {@link #inputPort(Building)}. */
+        public void receiveSignal(int port, int signal) {
+            nextSignal |= signal;
         }
 
 
@@ -167,6 +216,9 @@ public abstract class LogicBlock extends Block {
         }
 
         protected Color signalColor() {
+            //drawn signal is needed, lazy logic behind it has to catch up
+            BLVars.stateUpdater.demand(this);
+            if (deadLogicOverlay && BLVars.stateUpdater.dead(this)) return BLPal.deadSignalColor;
             return switch (Mathf.clamp(currentSignal(), -1, 1)) {
                 case -1 -> BLPal.negativeSignalColor;
                 case 0 -> BLPal.zeroSignalColor;
@@ -228,6 +280,7 @@ public abstract class LogicBlock extends Block {
             boolean wasAdded = added;
             super.remove();
             if (wasAdded != added) {
+                BLVars.stateUpdater.invalidate(this);
                 BLGroups.byteLogicBuild.remove(this);
             }
         }
@@ -237,10 +290,71 @@ public abstract class LogicBlock extends Block {
             boolean wasAdded = added;
             super.add();
             if (wasAdded != added) {
+                BLVars.stateUpdater.invalidate(this);
                 BLGroups.byteLogicBuild.add(this);
             }
         }
 
+        @Override
+        public void onProximityUpdate() {
+            super.onProximityUpdate();
+            BLVars.stateUpdater.invalidate(this);
+        }
+
+        @Override
+        public void configured(@Nullable Unit builder, @Nullable Object value) {
+            if (configChangesWiring()) {
+                //engine state must reach this building before configuration changes it
+                BLVars.stateUpdater.reconfigure(this, () -> super.configured(builder, value));
+            } else {
+                //engine picks configuration up at the end of frame, see reloadNetlist
+                super.configured(builder, value);
+                BLVars.stateUpdater.reload(this);
+            }
+        }
+
+        /** @return false if configuration changes only state of this building, so compiled netlist can be kept */
+        public boolean configChangesWiring() {
+            return true;
+        }
+
+        /** @return whether signal of this building acts on world, so it is evaluated even if nobody looks at it, see {@link LazyTicker} */
+        public boolean signalSink() {
+            return false;
+        }
+
+        /**
+         * Adds every building this one can send signal to, see {@link OutputCollector#output(Building, int)}.
+         * Used by both cached wiring and compiled netlist, per-tick conditions belong to {@link #outputOpen(int)}.
+         */
+        public void compileOutputs(OutputCollector outputs) {
+        }
+
+        /**
+         * @return port of {@link LogicNetlist} receiving signals from sender, must repeat {@link #acceptSignal(ByteLogicBuildingc, int)}.
+         */
+        public int inputPort(Building sender) {
+            return LogicNetlist.portSignal;
+        }
+
+        /** Stores state of this building into slot of compiled netlist. */
+        public void writeNetlist(LogicNetlist netlist, int index) {
+            netlist.kinds[index] = LogicNetlist.kindPass;
+            netlist.last[index] = lastSignal;
+            netlist.next[index] = nextSignal;
+        }
+
+        /** Copies configuration changed without {@link #configChangesWiring()} into slot of compiled netlist. */
+        public void reloadNetlist(LogicNetlist netlist, int index) {
+            netlist.next[index] = nextSignal;
+        }
+
+        /** Restores state of this building from slot of compiled netlist. */
+        public void readNetlist(LogicNetlist netlist, int index) {
+            lastSignal = netlist.last[index];
+            nextSignal = netlist.next[index];
+        }
+
         @Override
         public void customWrite(Writes write){
             write.i(nextSignal);
@@ -266,4 +380,30 @@ public abstract class LogicBlock extends Block {
             return (!LogicBlock.this.rotate || rotation == dir) && LogicBlock.this.doOutput;
         }
     }
+
+    /** Buildings resolve their wiring one at a time on logic thread, so one collector is shared. */
+    private static final WiringCollector wiringCollector = new WiringCollector();
+
+    private static class WiringCollector implements OutputCollector {
+        final Seq<LogicBuild> targets = new Seq<>(LogicBuild.class);
+        final IntSeq ports = new IntSeq(), gates = new IntSeq();
+        LogicBuild sender;
+
+        @Override
+        public void output(Building target, int gate) {
+            if (!(target instanceof LogicBuild receiver)) return;
+            int port = receiver.inputPort(sender);
+            if (port == LogicNetlist.portNone) return;
+            targets.add(receiver);
+            ports.add(port);
+            gates.add(gate);
+        }
+
+        void clear() {
+            targets.clear();
+            ports.clear();
+            gates.clear();
+            sender = null;
+        }
+    }
 }
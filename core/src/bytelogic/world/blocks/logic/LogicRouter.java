@@ -2,6 +2,7 @@ package bytelogic.world.blocks.logic;
 
 import arc.math.*;
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import mindustry.gen.*;
 
@@ -24,18 +25,59 @@ public class LogicRouter extends LogicBlock{
         }
 
         @Override
-        public void beforeUpdateSignalState(){
+        public void receiveSignal(int port, int signal){
+            int i = port & 3;
+            sides[i] -= 1;
+            if(signal != 0) sides[i] = 2;
+            sides[i] = port >= LogicNetlist.portRouterReset ? 0 : Mathf.clamp(sides[i], 0, 2);
+            nextSignal |= signal;
+        }
+
+        @Override
+        public boolean outputOpen(int gate){
+            return sides[gate] == 0;
+        }
+
+        @Override
+        public boolean canOutputSignal(int dir){
+            return canWireOutput(dir) && sides[dir] == 0;
+        }
+
+        /** Part of {@link #canOutputSignal(int)} which does not change between ticks. */
+        public boolean canWireOutput(int dir){
+            return super.canOutputSignal(dir);
+        }
+
+        @Override
+        public int inputPort(Building sender){
+            return LogicNetlist.portRouter + relativeTo(sender);
+        }
+
+        @Override
+        public void compileOutputs(OutputCollector outputs){
             for(int i = 0; i < sides.length; i++){
-                if(this.canOutputSignal(i)){
-                    nearby(i).<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
+                if(canWireOutput(i)){
+                    outputs.output(nearby(i), i);
                 }
             }
         }
 
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            int packed = 0;
+            for(int i = 0; i < sides.length; i++){
+                packed |= sides[i] << (i << 1);
+            }
+            netlist.sides[index] = (byte)packed;
+        }
 
         @Override
-        public boolean canOutputSignal(int dir){
-            return super.canOutputSignal(dir) && sides[dir] == 0;
+        public void readNetlist(LogicNetlist netlist, int index){
+            super.readNetlist(netlist, index);
+            for(int i = 0; i < sides.length; i++){
+                sides[i] = LogicNetlist.side(netlist.sides[index], i);
+            }
         }
 
 
@@ -8,6 +8,9 @@ import arc.math.geom.*;
 import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.*;
+import bytelogic.async.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import bytelogic.world.*;
 import mindustry.gen.*;
@@ -30,9 +33,11 @@ public class NodeLogicBlock extends LogicRouter{
         doOutput = true;
         this.<Integer, NodeLogicBuild>config(Integer.class, (build, link) -> {
             build.link = link;
+            build.linkedVersion = -1;
         });
         config(Point2.class, (NodeLogicBuild tile, Point2 point) -> {
             tile.link = Point2.pack(point.x + tile.tileX(), point.y + tile.tileY());
+            tile.linkedVersion = -1;
         });
     }
 
@@ -55,7 +60,7 @@ public class NodeLogicBlock extends LogicRouter{
 
 
     public boolean linkValid(NodeLogicBuild tile){
-        return linkValid(tile, world.build(tile.link));
+        return tile.linked() != null;
     }
 
     public boolean linkValid(Building tile, Building other){
@@ -86,14 +91,34 @@ public class NodeLogicBlock extends LogicRouter{
 
     public class NodeLogicBuild extends LogicRouterBuild{
         public int link = Pos.invalid;
+        /** Whether cached wiring sends signal through {@link #link} */
+        protected boolean wiredToLink;
+        /** Node at {@link #link} if the link is valid, see {@link #linked()} */
+        protected @Nullable NodeLogicBuild linked;
+        /** {@link BlockStateUpdater#wiringVersion} of {@link #linked} */
+        protected int linkedVersion = -1;
+
+        /**
+         * @return linked node, {@code null} if link is not valid.
+         * Resolved again only after placement, removal, team change or configuration changed logic graph.
+         */
+        public @Nullable NodeLogicBuild linked(){
+            int version = BLVars.stateUpdater.wiringVersion;
+            if(linkedVersion != version){
+                Building other = world.build(link);
+                linked = linkValid(this, other) ? (NodeLogicBuild)other : null;
+                linkedVersion = version;
+            }
+            return linked;
+        }
 
         @Override
         public void draw(){
             super.draw();
             Draw.draw(Layer.power, () -> {
 
-                Building link = world.build(this.link);
-                if(linkValid(this, link)){
+                Building link = linked();
+                if(link != null){
                     Draw.color(currentSignal() != 0 ? Pal.accent : Color.white);
                     Draw.alpha(1f * Core.settings.getInt("lasersopacity") / 100f);
                     Drawf.laser(Core.atlas.find(fullName("logic-laser")), Core.atlas.find(fullName("logic-laser-end")), x, y, link.x, link.y, 0.25f);
@@ -103,26 +128,43 @@ public class NodeLogicBlock extends LogicRouter{
         }
 
         @Override
-        public boolean canOutputSignal(int dir){
-            return super.canOutputSignal(dir) && !linkValid(this, world.build(link));
+        public boolean canWireOutput(int dir){
+            return super.canWireOutput(dir) && linked() == null;
         }
 
         @Override
-        public void beforeUpdateSignalState(){
-            Building link = world.build(this.link);
-            if(linkValid(this, link)){
-                NodeLogicBuild other = link.as();
-                other.acceptSignal(this, lastSignal);
-                lastSignal = 0;
-            }else{
-                for(int i = 0; i < 4 && doOutput; i++){
-                    if(this.canOutputSignal(i)){
-                        nearby(i).<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
-                    }
-                }
+        public void compileOutputs(OutputCollector outputs){
+            Building link = linked();
+            if(link != null){
+                outputs.output(link);
+            }else if(doOutput){
+                super.compileOutputs(outputs);
             }
         }
 
+        @Override
+        public int inputPort(Building sender){
+            if(link == sender.pos()) return LogicNetlist.portNone;
+            int port = super.inputPort(sender);
+            if(sender instanceof NodeLogicBuild nodeLogicBuild && nodeLogicBuild.link == pos()){
+                return port - LogicNetlist.portRouter + LogicNetlist.portRouterReset;
+            }
+            return port;
+        }
+
+        @Override
+        public void updateWiring(){
+            super.updateWiring();
+            wiredToLink = linked() != null;
+        }
+
+        @Override
+        public void beforeUpdateSignalState(){
+            super.beforeUpdateSignalState();
+            //signal moves along the link instead of staying in this node
+            if(wiredToLink) lastSignal = 0;
+        }
+
         @Override
         public void drawSelect(){
             super.drawSelect();
@@ -143,17 +185,10 @@ public class NodeLogicBlock extends LogicRouter{
             Drawf.circles(x, y, range, Color.white);
 
             Lines.stroke(1.5f);
-            int radius = Mathf.round(range / tilesize);
-            Tmp.p3.x = 0;
-            Geometry.circle(tile.x, tile.y, radius, (x, y) -> {
-                Building link = world.build(x, y);
-
-                if(linkValid(this, link) && this.link == link.pos()){
-                    Tmp.p3.x = 1;
-                    Drawf.square(link.x, link.y, link.block().size * tilesize / 2f + 1f, Pal.place);
-                }
-            });
-            if(Tmp.p3.x == 0){
+            Building linked = linked();
+            if(linked != null){
+                Drawf.square(linked.x, linked.y, linked.block().size * tilesize / 2f + 1f, Pal.place);
+            }else{
                 Tile link = world.tile(this.link);
                 if(link != null) Drawf.square(link.drawx(), link.drawy(), link.block().size * tilesize / 2f + 1f, Pal.remove);
             }
@@ -216,6 +251,7 @@ public class NodeLogicBlock extends LogicRouter{
             revision = (byte)(revision / 0x10);
             if(revision == 2) return;
             link = read.i();
+            linkedVersion = -1;
         }
 
         @Override
@@ -226,6 +262,7 @@ public class NodeLogicBlock extends LogicRouter{
         @Override
         public void customRead(Reads read){
             link=read.i();
+            linkedVersion = -1;
         }
 
         @Override
@@ -5,6 +5,7 @@ import arc.graphics.*;
 import arc.math.*;
 import arc.scene.ui.layout.*;
 import arc.util.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import mindustry.gen.*;
 import mindustry.ui.dialogs.*;
@@ -37,7 +38,7 @@ public class SignalBlock extends LogicBlock{
 
             table.button(Icon.pencilSmall, () -> {
                 ui.showTextInput("@block.editsignal", "", 10, nextSignal + "", true, result -> {
-                    nextSignal = Strings.parseInt(result, 0);
+                    configure(Strings.parseInt(result, 0));
                 });
                 control.input.config.hideConfig();
             }).size(40f);
@@ -78,15 +79,31 @@ public class SignalBlock extends LogicBlock{
         }
 
         @Override
-        public void beforeUpdateSignalState(){
+        public void updateSignalState(){
+            lastSignal = nextSignal;
+        }
+
+        @Override
+        public boolean configChangesWiring(){
+            return false;
+        }
+
+        @Override
+        public int inputPort(Building sender){
+            return LogicNetlist.portNone;
+        }
+
+        @Override
+        public void compileOutputs(OutputCollector outputs){
             if(doOutput && canOutputSignal(rotation)){
-                front().<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
+                outputs.output(front());
             }
         }
 
         @Override
-        public void updateSignalState(){
-            lastSignal = nextSignal;
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindConstant;
         }
         /*
         @Override
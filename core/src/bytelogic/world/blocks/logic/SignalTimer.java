@@ -13,6 +13,7 @@ import arc.scene.ui.layout.*;
 import arc.struct.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import bytelogic.gen.BLIcons.*;
 import bytelogic.ui.*;
@@ -25,7 +26,10 @@ import mma.io.*;
 public class SignalTimer extends UnaryLogicBlock{
     protected static final ByteReads tmpRead = new ByteReads();
     protected static final ByteWrites tmpWrite = new ByteWrites();
-    public int maxDelay = (int)Time.toSeconds;
+    /** Delay is stored as signal changes, so it may be long */
+    public int maxDelay = (int)Time.toMinutes * 10;
+    /** Most parts of signal bar, longer queues are sampled */
+    public int maxSignalParts = 60;
 
     public SignalTimer(String name){
         super(name);
@@ -60,11 +64,12 @@ public class SignalTimer extends UnaryLogicBlock{
             int[] currentDelay = {build.currentDelay};
             Runnable rebuild = () -> {
                 with.clear();
-                int amount = currentDelay[0];
+                int amount = Math.min(currentDelay[0], maxSignalParts), delay = currentDelay[0];
                 for(int i = 0; i < amount; i++){
-                    int finalI = i;
+                    //the newest signal first
+                    int ahead = amount == 1 ? 0 : (amount - i - 1) * (delay - 1) / (amount - 1);
                     with.add(new MultiBar.BarPart(() -> {
-                        int signal = build.signalsQueue[Mathf.mod(amount - finalI - 1 + build.tickCounter, amount)];
+                        int signal = build.signalsQueue.at(ahead);
                         return signal > 0f ? Pal.accent : (signal < 0 ? Pal.remove : Color.darkGray);
                     }, () -> 1f));
                 }
@@ -165,9 +170,8 @@ public class SignalTimer extends UnaryLogicBlock{
 
     public class SignalTimerBuild extends UnaryLogicBuild{
 
-        public int tickCounter = 0;
         private int currentDelay = 1;
-        public int[] signalsQueue = new int[currentDelay];
+        public SignalQueue signalsQueue = new SignalQueue(currentDelay);
 
         @Override
         public void buildConfiguration(Table table){
@@ -180,12 +184,14 @@ public class SignalTimer extends UnaryLogicBlock{
 //                it.button("-15", () -> configure(Math.max(0, currentDelay - 15))).disabled(zeroChecker);
 //                it.button("-10", () -> configure(Math.max(0, currentDelay - 10))).disabled(zeroChecker);
                     TextButtonStyle textButtonStyle = Styles.flatBordert;
+                    it.button("-60", textButtonStyle, () -> configureState(Math.max(1, currentDelay - 60),inputType)).disabled(zeroChecker);
                     it.button("-5", textButtonStyle, () -> configureState(Math.max(1, currentDelay - 5),inputType)).disabled(zeroChecker);
                     it.button("-1", textButtonStyle, () -> configureState(Math.max(1, currentDelay - 1),inputType)).disabled(zeroChecker);
                     it.label(() -> currentDelay + "").labelAlign(Align.center);
                     it.center();
                     it.button("+1", textButtonStyle, () -> configureState(Math.min(maxDelay, currentDelay + 1),inputType)).disabled(maxChecker);
                     it.button("+5", textButtonStyle, () -> configureState(Math.min(maxDelay, currentDelay + 5),inputType)).disabled(maxChecker);
+                    it.button("+60", textButtonStyle, () -> configureState(Math.min(maxDelay, currentDelay + 60),inputType)).disabled(maxChecker);
                 });
                 t.row();
                 t.table(inputButtons -> {
@@ -219,13 +225,7 @@ public class SignalTimer extends UnaryLogicBlock{
 
         @Override
         public boolean acceptSignal(ByteLogicBuildingc otherBuilding, int signal){
-            Building build = switch(inputType){
-                case backInput -> back();
-                case leftInput -> left();
-                case rightInput -> right();
-                default -> null;
-            };
-            if(build == otherBuilding) return super.acceptSignal(otherBuilding, signal);
+            if(inputBuilding() == otherBuilding) return super.acceptSignal(otherBuilding, signal);
             return false;
         }
 
@@ -270,24 +270,65 @@ public class SignalTimer extends UnaryLogicBlock{
             return dir == rotation && front() instanceof ByteLogicBuildingc;
         }
 
+        /** Queued signals are kept, they leave after new delay. */
         public void setDelay(int delay){
             currentDelay = delay;
-            signalsQueue = new int[delay];
-            tickCounter = 0;
+            signalsQueue.delay(delay);
         }
 
         @Override
         public void updateSignalState(){
-            if(signalsQueue.length == 0){
-                lastSignal = nextSignal;
-            }else{
-                signalsQueue[tickCounter] = nextSignal;
-                tickCounter = Mathf.mod(tickCounter + 1, signalsQueue.length);
-                lastSignal = signalsQueue[tickCounter];
-            }
+            lastSignal = signalsQueue.shift(nextSignal);
             nextSignal = 0;
         }
 
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindTimer;
+            //queue is shared with netlist
+            netlist.queues[index] = signalsQueue;
+        }
+
+        /** Writes delay and changes of queued signals, see {@link SignalQueue#write(int[], int)}. */
+        void writeChanges(Writes write){
+            int[] state = new int[signalsQueue.stateSize()];
+            signalsQueue.write(state, 0);
+            write.i(currentDelay);
+            for(int value : state){
+                write.i(value);
+            }
+        }
+
+        void readChanges(Reads read){
+            currentDelay = read.i();
+            int value = read.i(), events = read.i();
+            int[] state = new int[2 + events * 2];
+            state[0] = value;
+            state[1] = events;
+            for(int i = 2; i < state.length; i++){
+                state[i] = read.i();
+            }
+            signalsQueue = new SignalQueue(currentDelay);
+            signalsQueue.read(state, 0);
+        }
+
+        /** Reads ring of queued signals written by older versions. */
+        void readQueue(Reads read){
+            int counter = read.i();
+            int delay = read.i();
+            int[] ring = new int[delay];
+            for(int i = 0; i < delay; i++){
+                ring[i] = read.i();
+            }
+            int[] window = new int[delay];
+            for(int i = 0; i < delay; i++){
+                window[i] = ring[(counter + i) % delay];
+            }
+            currentDelay = delay;
+            signalsQueue = SignalQueue.window(window);
+        }
+
         @Override
         public byte version(){
             return (byte)(0b1001_0000 +/* 0b10000 +*/ 1);
@@ -318,12 +359,7 @@ public class SignalTimer extends UnaryLogicBlock{
             }
             if(revision<0) return;
             revision /= 0x10;
-            int tickCounter1 = read.i();
-            setDelay(read.i());
-            tickCounter = tickCounter1;
-            for(int i = 0; i < signalsQueue.length; i++){
-                signalsQueue[i] = read.i();
-            }
+            readQueue(read);
             if(revision == 0) return;
             inputType = read.i();
 
@@ -332,28 +368,19 @@ public class SignalTimer extends UnaryLogicBlock{
 
         @Override
         public void customWrite(Writes write){
-            write.i(tickCounter);
-            write.i(currentDelay);
-            for(int i : signalsQueue){
-                write.i(i);
-            }
+            writeChanges(write);
             write.i(inputType);
         }
 
         @Override
         public void customRead(Reads read){
-            int tickCounter1 = read.i();
-            setDelay(read.i());
-            tickCounter = tickCounter1;
-            for(int i = 0; i < signalsQueue.length; i++){
-                signalsQueue[i] = read.i();
-            }
+            readChanges(read);
             inputType = read.i();
         }
 
         @Override
         public short customVersion(){
-            return 0;
+            return 1;
         }
     }
 }
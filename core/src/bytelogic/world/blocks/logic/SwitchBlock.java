@@ -4,6 +4,7 @@ import arc.Graphics.*;
 import arc.Graphics.Cursor.*;
 import arc.audio.*;
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.gen.*;
 import mindustry.gen.*;
 
@@ -54,12 +55,28 @@ public class SwitchBlock extends LogicBlock{
         }
 
         @Override
-        public void beforeUpdateSignalState(){
+        public boolean configChangesWiring(){
+            return false;
+        }
+
+        @Override
+        public int inputPort(Building sender){
+            return LogicNetlist.portNone;
+        }
+
+        @Override
+        public void compileOutputs(OutputCollector outputs){
             if (doOutput && canOutputSignal(rotation)){
-                front().<ByteLogicBuildingc>as().acceptSignal(this,lastSignal);
+                outputs.output(front());
             }
         }
 
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindConstant;
+        }
+
         /*
         @Override
         public int signal(){
@@ -7,6 +7,7 @@ import arc.scene.ui.*;
 import arc.scene.ui.layout.*;
 import arc.util.*;
 import arc.util.io.*;
+import bytelogic.async.netlist.*;
 import bytelogic.game.*;
 import bytelogic.gen.*;
 import mindustry.annotations.*;
@@ -22,6 +23,8 @@ public abstract class UnaryLogicBlock extends LogicBlock{
     @Annotations.Load("@nameWithoutPrefix()-side")
     public TextureRegion sideRegion;
     protected /*@NonNull*/ UnaryProcessor processor;
+    /** Built-in operation, used as processor if it is not set */
+    public @Nullable GateOpcode opcode;
 
     public UnaryLogicBlock(String name){
         super(name);
@@ -31,6 +34,12 @@ public abstract class UnaryLogicBlock extends LogicBlock{
         });
     }
 
+    @Override
+    public void init(){
+        super.init();
+        if(processor == null) processor = opcode;
+    }
+
     @Override
     public void drawPlanRegion(BuildPlan req, Eachable<BuildPlan> list){
         if(!(req.config instanceof Integer value && value != backInput)){
@@ -126,30 +135,47 @@ public abstract class UnaryLogicBlock extends LogicBlock{
 
         @Override
         public boolean acceptSignal(ByteLogicBuildingc otherBuilding, int signal){
-            Building build = switch(inputType){
+            if(inputBuilding() == otherBuilding) return super.acceptSignal(otherBuilding, signal);
+            return false;
+        }
+
+        /** @return the only building this one receives signal from */
+        public @Nullable Building inputBuilding(){
+            return switch(inputType){
                 case backInput -> back();
                 case leftInput -> left();
                 case rightInput -> right();
                 default -> null;
             };
-            if(build == otherBuilding) return super.acceptSignal(otherBuilding, signal);
-            return false;
         }
 
         @Override
-        public void updateSignalState(){
-            lastSignal = processor.process(nextSignal);
-            nextSignal = 0;
-
+        public int inputPort(Building sender){
+            return inputBuilding() == sender ? LogicNetlist.portSignal : LogicNetlist.portNone;
         }
 
         @Override
-        public void beforeUpdateSignalState(){
+        public void compileOutputs(OutputCollector outputs){
             if(doOutput && canOutputSignal((byte)rotation)){
-                front().<ByteLogicBuildingc>as().acceptSignal(this, lastSignal);
+                outputs.output(front());
             }
         }
 
+        @Override
+        public void writeNetlist(LogicNetlist netlist, int index){
+            super.writeNetlist(netlist, index);
+            netlist.kinds[index] = LogicNetlist.kindUnary;
+            netlist.unary[index] = processor;
+            netlist.opcodes[index] = processor == opcode ? opcode : null;
+        }
+
+        @Override
+        public void updateSignalState(){
+            lastSignal = processor.process(nextSignal);
+            nextSignal = 0;
+
+        }
+
         @Override
         public byte version(){
             return (byte)(0x10 * 2 + super.version());